@@ -1,7 +1,7 @@
 package io.github.aratakileo.emogg;
 
 import io.github.aratakileo.emogg.emoji.EmojiManager;
-import io.github.aratakileo.emogg.gui.EmojiSuggestion;
+import io.github.aratakileo.emogg.gui.EmojiSuggestions;
 import io.github.aratakileo.suggestionsapi.SuggestionsAPI;
 import io.github.aratakileo.suggestionsapi.injector.Injector;
 import io.github.aratakileo.suggestionsapi.util.Cast;
@@ -15,8 +15,6 @@ import org.jetbrains.annotations.NotNull;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.util.LinkedList;
-import java.util.List;
 import java.util.regex.Pattern;
 
 public class Emogg implements ClientModInitializer {
@@ -27,14 +25,7 @@ public class Emogg implements ClientModInitializer {
     public void onInitializeClient() {
         SuggestionsAPI.registerInjector(Injector.simple(
                 Pattern.compile("[:：][A-Za-z0-9_]*([:：])?$"),
-                (currentExpression, startOffset) -> {
-                    List<EmojiSuggestion> suggestions = new LinkedList<>();
-                    EmojiManager.getInstance().getEmojisStream().forEach(emoji -> {
-                        suggestions.add(new EmojiSuggestion(emoji, ":%s:".formatted(emoji.getName())));
-                        suggestions.add(new EmojiSuggestion(emoji, "：%s：".formatted(emoji.getName())));
-                    });
-                   return Cast.of(suggestions);
-                }
+                (currentExpression, startOffset) -> Cast.of(EmojiSuggestions.get(currentExpression))
         ));
 
         EmoggConfig.load();
@@ -10,6 +10,7 @@ import java.io.File;
 import java.io.FileReader;
 import java.io.FileWriter;
 import java.util.ArrayList;
+import java.util.HashMap;
 
 public class EmoggConfig {
     // Non-JSON values
@@ -27,6 +28,16 @@ public class EmoggConfig {
     public @NotNull ArrayList<FueController.EmojiStatistic> frequentlyUsedEmojis = new ArrayList<>();
     public @NotNull ArrayList<String> hiddenCategoryNames = new ArrayList<>();
     public boolean enableCustomShaders = true;
+    // Render thread time each frame may spend on stitching emojis into the atlas
+    public double stitchBudgetMillis = 2;
+    // How emojis are packed into atlas pages: "skyline" or "guillotine"
+    public @NotNull String atlasPacker = "skyline";
+    // Atlas space emojis may take before the least recently rendered ones are unloaded, 0 for no limit
+    public int atlasBudgetMegabytes = 128;
+    // Bigger emoji images are scaled down when loaded, 0 for no limit
+    public int maxEmojiResolution = 64;
+    // `maxEmojiResolution` for specific resource packs, by pack id (e.g. "file/emojis.zip")
+    public @NotNull HashMap<String, Integer> packMaxEmojiResolutions = new HashMap<>();
 
     public static void setField(String field, Object value) {
         try {
@@ -53,7 +53,8 @@ public class EmoggRenderTypes {
         final var builder = CompositeState.builder();
 
         builder.setShaderState(shader);
-        builder.setTextureState(texture == null ? NO_TEXTURE : new TextureStateShard(texture, true, false));
+        // Emoji atlases are mipmapped, as they are mostly drawn smaller than they are stored
+        builder.setTextureState(texture == null ? NO_TEXTURE : new TextureStateShard(texture, true, true));
         builder.setTransparencyState(TRANSLUCENT_TRANSPARENCY);
         builder.setLightmapState(LIGHTMAP);
 
@@ -7,10 +7,10 @@ import net.fabricmc.api.EnvType;
 import net.fabricmc.api.Environment;
 import net.minecraft.resources.ResourceLocation;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
 import java.util.concurrent.CancellationException;
 import java.util.concurrent.ExecutionException;
-import java.util.concurrent.Future;
 
 @Environment(EnvType.CLIENT)
 public final class Emoji {
@@ -19,11 +19,16 @@ public final class Emoji {
     private final String category;
 
     private final EmojiLoader loader;
-    private Future<? extends EmojiGlyphProvider> loadingFuture = null;
+    private EmojiLoadingScheduler.Request loadingRequest = null;
     private EmojiGlyphProvider glyphProvider = null;
     private String loadError = null;
     private State state = State.INACTIVE;
 
+    // Position in the loaded emoji list of EmojiManager, -1 if not there
+    int loadedIndex = -1;
+    // See `EmojiEviction`
+    long lastRenderedFrame = 0;
+
     private Emoji(int id,
                     @NotNull String name,
                     @NotNull String category,
@@ -55,7 +60,15 @@ public final class Emoji {
     }
 
     public @NotNull EmojiGlyph getGlyph() {
-        updateLoadingState();
+        return getGlyph(EmojiLoadingScheduler.Priority.CHAT);
+    }
+
+    /**
+     * @param priority how important loading this emoji is, if it is not loaded yet
+     */
+    public @NotNull EmojiGlyph getGlyph(@NotNull EmojiLoadingScheduler.Priority priority) {
+        lastRenderedFrame = EmojiEviction.getFrame();
+        updateLoadingState(priority);
 
         var glyph = switch (state) {
             case LOADING -> EmojiGlyph.LOADING;
@@ -75,18 +88,31 @@ public final class Emoji {
         return glyph;
     }
 
-    private void updateLoadingState() {
+    /**
+     * Unlike {@link #getGlyph()}, neither starts loading nor counts as rendering for {@link EmojiEviction}
+     *
+     * @return the glyph, or {@code null} if the emoji is not loaded
+     */
+    public @Nullable EmojiGlyph getLoadedGlyph() {
+        return state == State.ACTIVE ? glyphProvider.getGlyph() : null;
+    }
+
+    private void updateLoadingState(@NotNull EmojiLoadingScheduler.Priority priority) {
+        // Dropped by the scheduler while nobody needed it, ask again
+        if (state == State.LOADING && loadingRequest.isCancelled()) state = State.INACTIVE;
+
         if (state == State.INACTIVE) {
-            loadingFuture = loader.load();
+            loadingRequest = EmojiLoadingScheduler.submit(loader, priority);
             state = State.LOADING;
-        }
+        } else if (state == State.LOADING) loadingRequest.touch(priority);
 
-        if (state != State.LOADING || !loadingFuture.isDone()) return;
+        if (state != State.LOADING || !loadingRequest.isDone()) return;
 
         // We might transition from INACTIVE to ACTIVE in one go
         try {
-            glyphProvider = loadingFuture.get();
+            glyphProvider = loadingRequest.get();
             state = State.ACTIVE;
+            EmojiManager.getInstance().onEmojiLoaded(this);
         } catch (ExecutionException e) {
             Emogg.LOGGER.warn("Emoji " + getCode() + " loading failed!", e.getCause());
             loadError = e.getCause().toString();
@@ -99,20 +125,43 @@ public final class Emoji {
     }
 
     public void reload(boolean forceLoadImmediately) {
+        if (state == State.ACTIVE) EmojiManager.getInstance().onEmojiUnloaded(this);
+
+        // Loaded, but the provider was not picked up yet
+        if (state == State.LOADING && loadingRequest.isDone()) {
+            try {
+                loadingRequest.get().release();
+            } catch (ExecutionException | InterruptedException | CancellationException ignored) {
+                // Nothing was stitched
+            }
+        } else if (loadingRequest != null && !loadingRequest.isDone()) loadingRequest.cancel();
+
         state = State.INACTIVE;
+        loadingRequest = null;
 
-        if (loadingFuture != null && !loadingFuture.isDone()) loadingFuture.cancel(true);
+        if (glyphProvider != null) glyphProvider.release();
 
-        loadingFuture = null;
-        // TODO: free the atlas space when reloading
         glyphProvider = null;
         loadError = null;
 
         if (forceLoadImmediately) forceLoad();
     }
 
+    /**
+     * Unloads the emoji and gives its atlas space back, it is loaded again once it is needed
+     *
+     * @return {@code false} if the emoji was not loaded
+     */
+    public boolean evict() {
+        if (state != State.ACTIVE) return false;
+
+        reload(false);
+
+        return true;
+    }
+
     public void forceLoad() {
-        updateLoadingState();
+        updateLoadingState(EmojiLoadingScheduler.Priority.PREFETCH);
     }
 
     public static @NotNull Emoji fromResource(
@@ -6,9 +6,11 @@ import com.mojang.blaze3d.systems.RenderSystem;
 import io.github.aratakileo.emogg.Emogg;
 import io.github.aratakileo.emogg.EmoggConfig;
 import io.github.aratakileo.emogg.util.HudRenderCallback;
+import io.github.aratakileo.emogg.util.ImageUtil;
 import io.github.aratakileo.emogg.util.Rect2i;
 import net.fabricmc.api.EnvType;
 import net.fabricmc.api.Environment;
+import net.minecraft.Util;
 import net.minecraft.client.Minecraft;
 import net.minecraft.client.gui.GuiGraphics;
 import net.minecraft.client.renderer.texture.AbstractTexture;
@@ -18,17 +20,39 @@ import net.minecraft.server.packs.resources.ResourceManager;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 import org.joml.Vector2i;
+import org.lwjgl.opengl.GL11;
+import org.lwjgl.opengl.GL30;
 
 import java.nio.file.Path;
 import java.util.*;
-
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Every atlas page keeps a CPU-side copy of its pixels and mips. Stitching packs the image, copies it there
+ * and updates the mips of its cell, from any thread, and {@link #uploadDirty()} sends the changed area of each page
+ * to the GPU in one upload per mip level.
+ * <p>
+ * A glyph may only be rendered after the upload which follows its stitching,
+ * that is why loaders hand out glyphs through {@link EmojiStitchQueue}, which uploads before running tasks.
+ * <p>
+ * Freed glyphs give their space back to the page. Once a page uses little of its area, a background task
+ * packs its glyphs into a new, smaller layout. The layout replaces the old one on the next upload,
+ * which is also when the glyphs are moved, so they always match the pixels on the GPU.
+ */
 @Environment(EnvType.CLIENT)
 public class EmojiAtlas {
     private static final String NAME = "emoji_atlas_%d";
     private static final List<EmojiAtlasTexture> textures = new ArrayList<>();
 
-    public static @NotNull EmojiGlyph.Atlas stitch(NativeImage image) {
-        RenderSystem.assertOnRenderThreadOrInit();
+    // Queried on the render thread, the pages may grow on other threads
+    private static int maxTextureSize = 2048;
+    // Cleared if copying textures through framebuffers fails once
+    private static boolean gpuCopySupported = true;
+
+    // Pages using less of their area than this are repacked
+    private static final double REPACK_THRESHOLD = 0.25;
+
+    public static synchronized @NotNull EmojiGlyph.Atlas stitch(NativeImage image) {
         for (var texture : textures) {
             var glyph = texture.stitch(image);
             if (glyph != null) return glyph;
@@ -39,45 +63,137 @@ public class EmojiAtlas {
         return Objects.requireNonNull(texture.stitch(image));
     }
 
-    public static void clear() {
+    /**
+     * Uploads the pixels stitched since the last call, at most one upload per page
+     */
+    public static synchronized void uploadDirty() {
+        RenderSystem.assertOnRenderThreadOrInit();
+
+        maxTextureSize = RenderSystem.maxSupportedTextureSize();
+        textures.forEach(EmojiAtlasTexture::uploadDirty);
+    }
+
+    /**
+     * Gives the atlas space of the glyph back, it must not be rendered afterward
+     */
+    public static synchronized void free(@NotNull EmojiGlyph.Atlas glyph) {
+        for (var texture : textures) {
+            if (!texture.free(glyph)) continue;
+
+            if (texture.shouldRepack()) {
+                final var snapshot = texture.startRepack();
+
+                // Packing and copying happen without the lock, so stitching and uploads go on meanwhile
+                CompletableFuture.runAsync(() -> {
+                    final var repack = texture.prepareRepack(snapshot);
+
+                    synchronized (EmojiAtlas.class) {
+                        texture.publishRepack(snapshot, repack);
+                    }
+                }, Util.backgroundExecutor());
+            }
+
+            return;
+        }
+    }
+
+    /**
+     * @return the texture memory taken by stitched glyphs, with padding and mips
+     */
+    public static synchronized long getUsedBytes() {
+        return textures.stream().mapToLong(texture -> EmojiAtlasTexture.withMips(texture.usedArea)).sum();
+    }
+
+    /**
+     * @return the texture memory of all atlas pages, with mips
+     */
+    public static synchronized long getAllocatedBytes() {
+        return textures.stream()
+                .mapToLong(texture -> EmojiAtlasTexture.withMips((long) texture.totalWidth * texture.totalHeight))
+                .sum();
+    }
+
+    public static synchronized void clear() {
         textures.forEach(EmojiAtlasTexture::close);
         textures.clear();
     }
 
     static {
         HudRenderCallback.EVENT.register((guiGraphics, tickDelta) -> {
-            if (EmoggConfig.instance.enableAtlasDebugHUD && !textures.isEmpty()) {
-                textures.get(textures.size() - 1).drawDebugHUD(guiGraphics);
+            if (!EmoggConfig.instance.enableAtlasDebugHUD) return;
+
+            synchronized (EmojiAtlas.class) {
+                if (!textures.isEmpty())
+                    textures.get(textures.size() - 1).drawDebugHUD(guiGraphics);
             }
+
+            drawDebugLines(
+                    guiGraphics,
+                    EmojiLoadingScheduler.getDebugString(),
+                    EmojiStitchQueue.getDebugString(),
+                    EmojiEviction.getDebugString()
+            );
         });
     }
 
+    private static void drawDebugLines(@NotNull GuiGraphics guiGraphics, @NotNull String... lines) {
+        final var font = Minecraft.getInstance().font;
+        var y = 2;
+
+        for (final var line: lines) {
+            guiGraphics.drawString(font, line, guiGraphics.guiWidth() - font.width(line) - 2, y, 0xffffff);
+            y += font.lineHeight + 1;
+        }
+    }
+
     private static class EmojiAtlasTexture extends AbstractTexture implements Dumpable {
         private final ResourceLocation name;
-        private int totalWidth = 256, totalHeight = 256;
-        private final LinkedList<Rect2i> freeSpace = new LinkedList<>();
-
-        private final Collection<EmojiGlyph.Atlas> stitchedGlyphs = new ArrayList<>();
+        // Size of the CPU-side copy, the GPU texture catches up with it on upload
+        private int totalWidth = INITIAL_SIZE, totalHeight = INITIAL_SIZE;
+        private int textureWidth = 0, textureHeight = 0;
+        private NativeImage staging;
+        // Mip levels 1 to `MIPMAP_LEVEL` of the staging image
+        private NativeImage[] mips;
+        // Bounds of all the pixels changed since the last upload, `null` if none
+        private @Nullable Rect2i dirtyRect = null;
+        private EmojiAtlasPacker packer;
+        // Smallest image which did not fit even at the maximum size, so bigger ones can skip this page
+        private int failedWidth = Integer.MAX_VALUE, failedHeight = Integer.MAX_VALUE;
+
+        private final Set<EmojiGlyph.Atlas> stitchedGlyphs = new HashSet<>();
+        // Area taken by the stitched glyphs, with padding
+        private long usedArea = 0;
+
+        // Set while a repack is scheduled or waiting to be applied, nothing new is stitched then
+        private boolean isRepacking = false;
+        // Set while a repack copies from the staging image without the lock, closing it is left to the repack then
+        private boolean isCopyingForRepack = false;
+        private boolean isClosed = false;
+        private @Nullable Repack repack = null;
+        // Set when the GPU texture does not match the layout anymore and everything has to be uploaded
+        private boolean isTextureOutdated = false;
+        // Used area when repacking last did not make the page smaller, there is no point in trying again right away
+        private long repackFailedAt = Long.MAX_VALUE;
 
 //        private final GlyphRenderTypes glyphRenderTypes;
 
         // Can be changed to fill the bg with a specific color for debugging
         private static final int BG_FILL_COLOR = 0x00000000;
+        private static final int INITIAL_SIZE = 256;
+        // Mip levels 1 to `MIPMAP_LEVEL` are kept on the CPU and only updated where pixels change,
+        // so uploading a whole page does not have to generate them on the render thread
+        private static final int MIPMAP_LEVEL = 2;
+        // Cells are aligned to the texels of the smallest mip and keep one of its texels empty around the image,
+        // so no mip mixes pixels of neighbouring glyphs
+        private static final int ALIGNMENT = 1 << MIPMAP_LEVEL;
+        private static final int PADDING = ALIGNMENT;
 
         public EmojiAtlasTexture(String name) {
-            RenderSystem.assertOnRenderThreadOrInit();
-
+            // The GL texture is created on the first upload
             this.name = new ResourceLocation(Emogg.NAMESPACE_OR_ID, name);
-            Minecraft.getInstance().getTextureManager().register(this.name, this);
-
-            TextureUtil.prepareImage(
-                    NativeImage.InternalGlFormat.RGBA,
-                    getId(),
-                    totalWidth, totalHeight
-            );
-            fillBackground();
-
-            freeSpace.add(new Rect2i(0, 0, totalWidth, totalHeight));
+            this.staging = createStaging(totalWidth, totalHeight);
+            this.mips = createMips(totalWidth, totalHeight);
+            this.packer = EmojiAtlasPacker.create(EmoggConfig.instance.atlasPacker, totalWidth, totalHeight);
 //            glyphRenderTypes = EmoggRenderTypes.emojiTextured(this.name);
 
             if (EmoggConfig.instance.enableDebugMode)
@@ -90,18 +206,23 @@ public class EmojiAtlas {
         }
 
         public @Nullable EmojiGlyph.Atlas stitch(NativeImage image) {
-            RenderSystem.assertOnRenderThreadOrInit();
+            if (isRepacking || image.getWidth() >= failedWidth && image.getHeight() >= failedHeight) return null;
 
             Vector2i pos;
-            while ((pos = fit(image.getWidth(), image.getHeight(), 1)) == null) {
-                if (!expand()) return null;
+            while ((pos = fit(packer, image.getWidth(), image.getHeight())) == null) {
+                if (!expand()) {
+                    failedWidth = image.getWidth();
+                    failedHeight = image.getHeight();
+                    return null;
+                }
             }
 
             if (EmoggConfig.instance.enableDebugMode)
                 Emogg.LOGGER.info("Stitching emoji texture to ({},{})", pos.x, pos.y);
 
-            bind();
-            image.upload(0, pos.x, pos.y, false);
+            image.copyRect(staging, 0, 0, pos.x, pos.y, image.getWidth(), image.getHeight(), false, false);
+            updateMips(staging, mips, getCell(pos.x, pos.y, image.getWidth(), image.getHeight()));
+            markDirty(pos.x, pos.y, image.getWidth(), image.getHeight());
 
             var glyph = new EmojiGlyph.Atlas(
                     name,
@@ -109,92 +230,267 @@ public class EmojiAtlas {
             );
             glyph.updateUV(totalWidth, totalHeight);
             stitchedGlyphs.add(glyph);
+            usedArea += paddedArea(glyph);
             return glyph;
         }
 
-        @SuppressWarnings("SameParameterValue")
-        private @Nullable Vector2i fit(int width, int height, int padding) {
-            width += padding * 2;
-            height += padding * 2;
-
-            var iter = freeSpace.listIterator();
-            while (iter.hasNext()) {
-                var rect = iter.next();
-                if (rect.getWidth() >= width && rect.getHeight() >= height) {
-                    var pos = new Vector2i(rect.getX() + padding, rect.getY() + padding);
-
-                    // #########  |  #########
-                    // ##### 0 #  |  #####   #
-                    // #########  |  ##### 1 #
-                    // #   1   #  |  # 0 #   #
-                    // #########  |  #########
-                    // Solution A |  Solution B
-
-                    // Try to keep the rects square-like
-                    double ratioA0 = (double) (rect.getWidth() - width) / (height);
-                    double ratioA1 = (double) (rect.getWidth()) / (rect.getHeight() - height);
-                    double ratioB0 = (double) (width) / (rect.getHeight() - height);
-                    double ratioB1 = (double) (rect.getWidth() - width) / (rect.getHeight());
-                    double ratioA = Math.max(
-                            ratioA0 > 1 ? ratioA0 : (1 / ratioA0),
-                            ratioA1 > 1 ? ratioA1 : (1 / ratioA1)
-                    );
-                    double ratioB = Math.max(
-                            ratioB0 > 1 ? ratioB0 : (1 / ratioB0),
-                            ratioB1 > 1 ? ratioB1 : (1 / ratioB1)
-                    );
+        /**
+         * @return {@code false} if the glyph is not on this page
+         */
+        public boolean free(@NotNull EmojiGlyph.Atlas glyph) {
+            if (!stitchedGlyphs.remove(glyph)) return false;
+
+            final var rect = glyph.getRect();
+            final var cell = getCell(rect.getX(), rect.getY(), rect.getWidth(), rect.getHeight());
+
+            release(packer, staging, mips, cell);
+            markDirty(cell.getX(), cell.getY(), cell.getWidth(), cell.getHeight());
+
+            // Also free it in the layout which is going to replace the current one
+            if (repack != null) {
+                final var pos = repack.positions.remove(glyph);
+                release(
+                        repack.packer,
+                        repack.staging,
+                        repack.mips,
+                        getCell(pos.x, pos.y, rect.getWidth(), rect.getHeight())
+                );
+            }
 
-                    Rect2i toAdd;
-                    // toAdd -> 0
-                    // rect -> 1
-                    if (ratioA < ratioB) {
-                        // Solution A
-                        toAdd = new Rect2i(
-                                rect.getX() + width,
-                                rect.getY(),
-                                rect.getWidth() - width,
-                                height
-                        );
-                        rect.setY(rect.getY() + height);
-                        rect.setHeight(rect.getHeight() - height);
-                    } else {
-                        // Solution B
-                        toAdd = new Rect2i(
-                                rect.getX(),
-                                rect.getY() + height,
-                                width,
-                                rect.getHeight() - height
-                        );
-                        rect.setX(rect.getX() + width);
-                        rect.setWidth(rect.getWidth() - width);
-                    }
+            usedArea -= paddedArea(glyph);
+            failedWidth = failedHeight = Integer.MAX_VALUE;
+
+            if (EmoggConfig.instance.enableDebugMode)
+                Emogg.LOGGER.info("Freed emoji texture at ({},{})", rect.getX(), rect.getY());
+
+            return true;
+        }
+
+        private static void release(
+                @NotNull EmojiAtlasPacker packer,
+                @NotNull NativeImage staging,
+                @NotNull NativeImage[] mips,
+                @NotNull Rect2i cell
+        ) {
+            packer.free(cell.getX(), cell.getY(), cell.getWidth(), cell.getHeight());
+            // Padding has to stay empty for whatever is stitched here next
+            staging.fillRect(cell.getX(), cell.getY(), cell.getWidth(), cell.getHeight(), BG_FILL_COLOR);
+
+            for (var level = 1; level <= MIPMAP_LEVEL; level++)
+                mips[level - 1].fillRect(
+                        cell.getX() >> level, cell.getY() >> level,
+                        cell.getWidth() >> level, cell.getHeight() >> level,
+                        BG_FILL_COLOR
+                );
+        }
+
+        /**
+         * Regenerates the mips of the cell, each level from the previous one
+         */
+        private static void updateMips(@NotNull NativeImage staging, @NotNull NativeImage[] mips, @NotNull Rect2i cell) {
+            var source = staging;
+
+            for (var level = 1; level <= MIPMAP_LEVEL; level++) {
+                final var mip = mips[level - 1];
+                final int left = cell.getX() >> level, top = cell.getY() >> level;
+                final int right = cell.getRight() >> level, bottom = cell.getBottom() >> level;
+
+                for (var y = top; y < bottom; y++)
+                    for (var x = left; x < right; x++)
+                        mip.setPixelRGBA(x, y, ImageUtil.averageColor(
+                                source.getPixelRGBA(x * 2, y * 2),
+                                source.getPixelRGBA(x * 2 + 1, y * 2),
+                                source.getPixelRGBA(x * 2, y * 2 + 1),
+                                source.getPixelRGBA(x * 2 + 1, y * 2 + 1)
+                        ));
+
+                source = mip;
+            }
+        }
+
+        /**
+         * @return size of the cell allocated for an image of this size
+         */
+        private static int getCellSize(int size) {
+            return (size + PADDING * 2 + ALIGNMENT - 1) & -ALIGNMENT;
+        }
+
+        /**
+         * @return the cell allocated for an image at this position
+         */
+        private static @NotNull Rect2i getCell(int x, int y, int width, int height) {
+            return new Rect2i(x - PADDING, y - PADDING, getCellSize(width), getCellSize(height));
+        }
+
+        private static long paddedArea(@NotNull EmojiGlyph.Atlas glyph) {
+            return (long) getCellSize(glyph.getRect().getWidth()) * getCellSize(glyph.getRect().getHeight());
+        }
+
+        public boolean shouldRepack() {
+            // A page of the initial size cannot get any smaller
+            return !isRepacking
+                    && (totalWidth > INITIAL_SIZE || totalHeight > INITIAL_SIZE)
+                    && usedArea < REPACK_THRESHOLD * totalWidth * totalHeight
+                    && usedArea * 2 <= repackFailedAt;
+        }
+
+        /**
+         * Takes what a repack needs, so it can be prepared without the lock.
+         * Nothing is stitched into the page and its staging image is kept until the repack is published.
+         */
+        public @NotNull RepackSnapshot startRepack() {
+            isRepacking = true;
+            isCopyingForRepack = true;
+
+            final var rects = new HashMap<EmojiGlyph.Atlas, Rect2i>();
+            stitchedGlyphs.forEach(glyph -> rects.put(glyph, glyph.getRect().copy()));
+
+            return new RepackSnapshot(staging, totalWidth, totalHeight, rects, EmoggConfig.instance.atlasPacker);
+        }
+
+        /**
+         * Packs the glyphs of the snapshot into a new layout, biggest first, and copies their pixels there.
+         * Runs without the lock, so only the snapshot may be used.
+         *
+         * @return {@code null} if the page would not get any smaller
+         */
+        public @Nullable Repack prepareRepack(@NotNull RepackSnapshot snapshot) {
+            final var glyphs = new ArrayList<>(snapshot.rects.entrySet());
+            glyphs.sort(Comparator.<Map.Entry<EmojiGlyph.Atlas, Rect2i>>comparingInt(entry -> entry.getValue().getHeight())
+                    .thenComparingInt(entry -> entry.getValue().getWidth())
+                    .reversed());
+
+            final var limit = maxTextureSize;
+            int width = INITIAL_SIZE, height = INITIAL_SIZE;
+            final var newPacker = EmojiAtlasPacker.create(snapshot.packerName, width, height);
+            final var positions = new HashMap<EmojiGlyph.Atlas, Vector2i>();
+
+            for (final var entry : glyphs) {
+                final var rect = entry.getValue();
+                Vector2i pos;
+
+                while ((pos = fit(newPacker, rect.getWidth(), rect.getHeight())) == null) {
+                    if (width >= limit && height >= limit) return null;
+
+                    int oldWidth = width, oldHeight = height;
+                    if (width <= height)
+                        width = Math.min(width * 2, limit);
+                    else
+                        height = Math.min(height * 2, limit);
+
+                    newPacker.grow(oldWidth, oldHeight, width, height);
+                }
+
+                positions.put(entry.getKey(), pos);
+            }
+
+            // Only worth it if the page gets smaller
+            if ((long) width * height >= (long) snapshot.width * snapshot.height) return null;
+
+            final var newStaging = createStaging(width, height);
+            final var newMips = createMips(width, height);
+
+            positions.forEach((glyph, pos) -> {
+                final var rect = snapshot.rects.get(glyph);
 
-                    // Keep small rectangular spaces in the front reduce fragmentation
-                    iter.remove();
-                    if (rect.hasArea()) freeSpace.addFirst(rect);
-                    if (toAdd.hasArea()) freeSpace.addFirst(toAdd);
+                snapshot.staging.copyRect(
+                        newStaging,
+                        rect.getX(), rect.getY(),
+                        pos.x, pos.y,
+                        rect.getWidth(), rect.getHeight(),
+                        false, false
+                );
+                updateMips(newStaging, newMips, getCell(pos.x, pos.y, rect.getWidth(), rect.getHeight()));
+            });
+
+            return new Repack(newPacker, newStaging, newMips, width, height, positions);
+        }
 
-                    return pos;
+        /**
+         * Makes the repack wait for the next upload, or drops it if the page changed in a way it cannot follow
+         */
+        public void publishRepack(@NotNull RepackSnapshot snapshot, @Nullable Repack repack) {
+            isCopyingForRepack = false;
+
+            if (isClosed || repack == null || staging != snapshot.staging) {
+                if (repack != null) repack.close();
+
+                // Cleared in the meantime
+                if (isClosed) {
+                    snapshot.staging.close();
+                    return;
                 }
+
+                onRepackFailed();
+                return;
             }
-            return null;
+
+            // Freed while the repack was prepared
+            for (final var glyph : new ArrayList<>(repack.positions.keySet())) {
+                if (stitchedGlyphs.contains(glyph)) continue;
+
+                final var pos = repack.positions.remove(glyph);
+                final var rect = snapshot.rects.get(glyph);
+
+                release(
+                        repack.packer,
+                        repack.staging,
+                        repack.mips,
+                        getCell(pos.x, pos.y, rect.getWidth(), rect.getHeight())
+                );
+            }
+
+            this.repack = repack;
+
+            if (EmoggConfig.instance.enableDebugMode)
+                Emogg.LOGGER.info("Repacking emoji atlas {}: {}x{} -> {}x{}",
+                        getName(), totalWidth, totalHeight, repack.width, repack.height);
         }
 
-        private boolean expand() {
-            RenderSystem.assertOnRenderThreadOrInit();
+        private void onRepackFailed() {
+            isRepacking = false;
+            repackFailedAt = usedArea;
+        }
 
-            final int LIMIT = RenderSystem.maxSupportedTextureSize();
+        private void applyRepack(@NotNull Repack repack) {
+            staging.close();
+            closeMips(mips);
+            staging = repack.staging;
+            mips = repack.mips;
+            packer = repack.packer;
+            totalWidth = repack.width;
+            totalHeight = repack.height;
+            repack.positions.forEach((glyph, pos) -> glyph.moveTo(pos.x, pos.y));
+
+            this.repack = null;
+            isRepacking = false;
+            isTextureOutdated = true;
+            failedWidth = failedHeight = Integer.MAX_VALUE;
+            repackFailedAt = Long.MAX_VALUE;
+        }
+
+        /**
+         * @return where the image goes, inside of its padded cell
+         */
+        private static @Nullable Vector2i fit(@NotNull EmojiAtlasPacker packer, int width, int height) {
+            // Packers only ever place cells next to other cells or page edges, so aligned sizes keep them aligned
+            final var pos = packer.allocate(getCellSize(width), getCellSize(height));
+
+            return pos == null ? null : pos.add(PADDING, PADDING);
+        }
+
+        private boolean expand() {
+            final int LIMIT = maxTextureSize;
             if (totalWidth == LIMIT && totalHeight == LIMIT)
                 return false;
 
             int oldWidth = totalWidth, oldHeight = totalHeight;
-            if (totalWidth <= totalHeight) {
+            if (totalWidth <= totalHeight)
                 totalWidth = Math.min(totalWidth * 2, LIMIT);
-                freeSpace.add(new Rect2i(oldWidth, 0, totalWidth - oldWidth, totalHeight));
-            } else {
+            else
                 totalHeight = Math.min(totalHeight * 2, LIMIT);
-                freeSpace.add(new Rect2i(0, oldHeight, totalWidth, totalHeight - oldHeight));
-            }
+
+            packer.grow(oldWidth, oldHeight, totalWidth, totalHeight);
 
             if (EmoggConfig.instance.enableDebugMode)
                 Emogg.LOGGER.info("Expanding emoji atlas: %dx%d -> %dx%d".formatted(
@@ -202,45 +498,265 @@ public class EmojiAtlas {
                         totalWidth, totalHeight
                 ));
 
-            // Copy data
-            bind();
-            var image = new NativeImage(NativeImage.Format.RGBA, oldWidth, oldHeight, false);
-            image.downloadTexture(0, false);
+            // Copy data, the texture itself is recreated on the next upload
+            final var newStaging = createStaging(totalWidth, totalHeight);
+            staging.copyRect(newStaging, 0, 0, 0, 0, oldWidth, oldHeight, false, false);
+            staging.close();
+            staging = newStaging;
+
+            final var newMips = createMips(totalWidth, totalHeight);
+
+            for (var level = 1; level <= MIPMAP_LEVEL; level++)
+                mips[level - 1].copyRect(
+                        newMips[level - 1],
+                        0, 0,
+                        0, 0,
+                        oldWidth >> level, oldHeight >> level,
+                        false, false
+                );
 
-            // Create new texture
-            releaseId();
-            TextureUtil.prepareImage(
-                    NativeImage.InternalGlFormat.RGBA,
-                    getId(),
-                    totalWidth, totalHeight
+            closeMips(mips);
+            mips = newMips;
+
+            return true;
+        }
+
+        private void markDirty(int x, int y, int width, int height) {
+            if (dirtyRect == null) {
+                dirtyRect = new Rect2i(x, y, width, height);
+                return;
+            }
+
+            final var left = Math.min(dirtyRect.getX(), x);
+            final var top = Math.min(dirtyRect.getY(), y);
+
+            dirtyRect = new Rect2i(
+                    left,
+                    top,
+                    Math.max(dirtyRect.getRight(), x + width) - left,
+                    Math.max(dirtyRect.getBottom(), y + height) - top
             );
-            fillBackground();
+        }
 
-            // Apply old data
-            bind();
-            image.upload(0, 0, 0, false);
-            image.close();
+        public void uploadDirty() {
+            RenderSystem.assertOnRenderThreadOrInit();
+
+            if (repack != null) applyRepack(repack);
+
+            final var isResized = textureWidth != totalWidth || textureHeight != totalHeight;
+
+            if (isResized) {
+                final var oldId = id;
+                var isCopied = false;
+
+                if (textureWidth == 0)
+                    Minecraft.getInstance().getTextureManager().register(name, this);
+                else
+                    id = -1; // Keep the old texture until it is copied, `getId()` creates a new one
+
+                TextureUtil.prepareImage(
+                        NativeImage.InternalGlFormat.RGBA,
+                        getId(),
+                        MIPMAP_LEVEL,
+                        totalWidth, totalHeight
+                );
+
+                if (oldId != -1) {
+                    isCopied = !isTextureOutdated
+                            && gpuCopySupported
+                            && copyOnGpu(oldId, getId(), textureWidth, textureHeight);
+
+                    if (!isCopied && !isTextureOutdated && gpuCopySupported) {
+                        gpuCopySupported = false;
+                        Emogg.LOGGER.warn("Failed to grow emoji atlas on the GPU, whole atlases will be uploaded instead");
+                    }
+
+                    TextureUtil.releaseTextureId(oldId);
+                }
+
+                textureWidth = totalWidth;
+                textureHeight = totalHeight;
+
+                // Without a copy on the GPU, everything comes from the staging copy
+                if (!isCopied) dirtyRect = new Rect2i(0, 0, totalWidth, totalHeight);
+            }
+
+            if (isTextureOutdated) dirtyRect = new Rect2i(0, 0, totalWidth, totalHeight);
 
             // Update current glyphs
-            stitchedGlyphs.forEach(glyph -> glyph.updateUV(totalWidth, totalHeight));
+            if (isResized || isTextureOutdated)
+                stitchedGlyphs.forEach(glyph -> glyph.updateUV(totalWidth, totalHeight));
 
-            return true;
+            isTextureOutdated = false;
+
+            if (dirtyRect == null) return;
+
+            // Whole texels of the smallest mip, page sizes are multiples of it
+            final var left = dirtyRect.getX() & -ALIGNMENT;
+            final var top = dirtyRect.getY() & -ALIGNMENT;
+            final var rect = new Rect2i(
+                    left,
+                    top,
+                    ((dirtyRect.getRight() + ALIGNMENT - 1) & -ALIGNMENT) - left,
+                    ((dirtyRect.getBottom() + ALIGNMENT - 1) & -ALIGNMENT) - top
+            );
+
+            bind();
+            staging.upload(
+                    0,
+                    rect.getX(), rect.getY(),
+                    rect.getX(), rect.getY(),
+                    rect.getWidth(), rect.getHeight(),
+                    false, false, true, false
+            );
+            EmojiStitchQueue.recordUpload(4L * rect.getWidth() * rect.getHeight());
+
+            uploadMips(rect);
+
+            dirtyRect = null;
+        }
+
+        /**
+         * Uploads the mips of the area, they are kept up to date whenever pixels change
+         */
+        private void uploadMips(@NotNull Rect2i rect) {
+            for (var level = 1; level <= MIPMAP_LEVEL; level++) {
+                final var width = rect.getWidth() >> level;
+                final var height = rect.getHeight() >> level;
+
+                mips[level - 1].upload(
+                        level,
+                        rect.getX() >> level, rect.getY() >> level,
+                        rect.getX() >> level, rect.getY() >> level,
+                        width, height,
+                        false, false, true, false
+                );
+                EmojiStitchQueue.recordUpload(4L * width * height);
+            }
         }
 
-        private void fillBackground() {
-            try (var image = new NativeImage(NativeImage.Format.RGBA, totalWidth, totalHeight, false)) {
-                image.fillRect(0, 0, totalWidth, totalHeight, BG_FILL_COLOR);
-                bind();
-                image.upload(0, 0, 0, false);
+        /**
+         * Clears the target texture to the background and copies the top left corner of the source texture into it,
+         * every mip level, using framebuffer blitting
+         *
+         * @return {@code false} if the framebuffers could not be set up, the target is left as it was then
+         */
+        private static boolean copyOnGpu(int sourceId, int targetId, int width, int height) {
+            final var previousReadFramebuffer = GL11.glGetInteger(GL30.GL_READ_FRAMEBUFFER_BINDING);
+            final var previousDrawFramebuffer = GL11.glGetInteger(GL30.GL_DRAW_FRAMEBUFFER_BINDING);
+            final var readFramebuffer = GL30.glGenFramebuffers();
+            final var drawFramebuffer = GL30.glGenFramebuffers();
+
+            try {
+                GL30.glBindFramebuffer(GL30.GL_READ_FRAMEBUFFER, readFramebuffer);
+                GL30.glBindFramebuffer(GL30.GL_DRAW_FRAMEBUFFER, drawFramebuffer);
+
+                for (var level = 0; level <= MIPMAP_LEVEL; level++) {
+                    GL30.glFramebufferTexture2D(
+                            GL30.GL_READ_FRAMEBUFFER, GL30.GL_COLOR_ATTACHMENT0, GL11.GL_TEXTURE_2D, sourceId, level
+                    );
+                    GL30.glFramebufferTexture2D(
+                            GL30.GL_DRAW_FRAMEBUFFER, GL30.GL_COLOR_ATTACHMENT0, GL11.GL_TEXTURE_2D, targetId, level
+                    );
+
+                    if (
+                            GL30.glCheckFramebufferStatus(GL30.GL_READ_FRAMEBUFFER) != GL30.GL_FRAMEBUFFER_COMPLETE
+                                    || GL30.glCheckFramebufferStatus(GL30.GL_DRAW_FRAMEBUFFER) != GL30.GL_FRAMEBUFFER_COMPLETE
+                    ) return false;
+                }
+
+                // Raw GL calls, so the state cached by GlStateManager stays valid once it is restored
+                final var isScissorTestEnabled = GL11.glIsEnabled(GL11.GL_SCISSOR_TEST);
+                final var clearColor = new float[4];
+                GL11.glGetFloatv(GL11.GL_COLOR_CLEAR_VALUE, clearColor);
+
+                GL11.glDisable(GL11.GL_SCISSOR_TEST);
+                // NativeImage colors are ABGR
+                GL11.glClearColor(
+                        (BG_FILL_COLOR & 0xff) / 255f,
+                        (BG_FILL_COLOR >> 8 & 0xff) / 255f,
+                        (BG_FILL_COLOR >> 16 & 0xff) / 255f,
+                        (BG_FILL_COLOR >>> 24) / 255f
+                );
+
+                for (var level = 0; level <= MIPMAP_LEVEL; level++) {
+                    GL30.glFramebufferTexture2D(
+                            GL30.GL_READ_FRAMEBUFFER, GL30.GL_COLOR_ATTACHMENT0, GL11.GL_TEXTURE_2D, sourceId, level
+                    );
+                    GL30.glFramebufferTexture2D(
+                            GL30.GL_DRAW_FRAMEBUFFER, GL30.GL_COLOR_ATTACHMENT0, GL11.GL_TEXTURE_2D, targetId, level
+                    );
+                    GL11.glClear(GL11.GL_COLOR_BUFFER_BIT);
+                    GL30.glBlitFramebuffer(
+                            0, 0, width >> level, height >> level,
+                            0, 0, width >> level, height >> level,
+                            GL11.GL_COLOR_BUFFER_BIT, GL11.GL_NEAREST
+                    );
+                }
+
+                GL11.glClearColor(clearColor[0], clearColor[1], clearColor[2], clearColor[3]);
+
+                if (isScissorTestEnabled) GL11.glEnable(GL11.GL_SCISSOR_TEST);
+
+                return true;
+            } finally {
+                GL30.glBindFramebuffer(GL30.GL_READ_FRAMEBUFFER, previousReadFramebuffer);
+                GL30.glBindFramebuffer(GL30.GL_DRAW_FRAMEBUFFER, previousDrawFramebuffer);
+                GL30.glDeleteFramebuffers(readFramebuffer);
+                GL30.glDeleteFramebuffers(drawFramebuffer);
             }
         }
 
+        private static @NotNull NativeImage createStaging(int width, int height) {
+            final var image = new NativeImage(NativeImage.Format.RGBA, width, height, true);
+            image.fillRect(0, 0, width, height, BG_FILL_COLOR);
+
+            return image;
+        }
+
+        private static @NotNull NativeImage[] createMips(int width, int height) {
+            final var mips = new NativeImage[MIPMAP_LEVEL];
+
+            for (var level = 1; level <= MIPMAP_LEVEL; level++)
+                mips[level - 1] = createStaging(width >> level, height >> level);
+
+            return mips;
+        }
+
+        private static void closeMips(@NotNull NativeImage[] mips) {
+            for (final var mip : mips) mip.close();
+        }
+
+        /**
+         * @return the bytes of the area with all of its mip levels
+         */
+        private static long withMips(long area) {
+            var bytes = 0L;
+
+            for (var level = 0; level <= MIPMAP_LEVEL; level++)
+                bytes += 4 * (area >> level * 2);
+
+            return bytes;
+        }
+
+        @Override
+        public void close() {
+            releaseId();
+            isClosed = true;
+            closeMips(mips);
+
+            // A repack still copying from it closes it once done
+            if (!isCopyingForRepack) staging.close();
+
+            if (repack != null) repack.close();
+        }
+
         @SuppressWarnings("unused")
         private void _debugDrawFreeSpace() {
             RenderSystem.assertOnRenderThreadOrInit();
             var image = new NativeImage(NativeImage.Format.RGBA, totalWidth, totalHeight, false);
             var random = new Random();
-            for (var rect : freeSpace) {
+            for (var rect : packer.getFreeSpace()) {
                 try {
                     image.fillRect(
                             rect.getX(), rect.getY(),
@@ -264,7 +780,7 @@ public class EmojiAtlas {
                     path, resourceLocation.toDebugFileName(),
                     getId(),
                     0,
-                    totalWidth, totalHeight
+                    textureWidth, textureHeight
             );
         }
 
@@ -285,7 +801,7 @@ public class EmojiAtlas {
             );
 
             var random = new Random();
-            for (var rect : freeSpace) {
+            for (var rect : packer.getFreeSpace()) {
                 random.setSeed(rect.hashCode());
                 guiGraphics.fill(
                         (int) (rect.getX() * scale), (int) (rect.getY() * scale),
@@ -294,5 +810,27 @@ public class EmojiAtlas {
                 );
             }
         }
+
+        private record RepackSnapshot(
+                @NotNull NativeImage staging,
+                int width,
+                int height,
+                @NotNull Map<EmojiGlyph.Atlas, Rect2i> rects,
+                @NotNull String packerName
+        ) {}
+
+        private record Repack(
+                @NotNull EmojiAtlasPacker packer,
+                @NotNull NativeImage staging,
+                @NotNull NativeImage[] mips,
+                int width,
+                int height,
+                @NotNull Map<EmojiGlyph.Atlas, Vector2i> positions
+        ) {
+            private void close() {
+                staging.close();
+                closeMips(mips);
+            }
+        }
     }
 }
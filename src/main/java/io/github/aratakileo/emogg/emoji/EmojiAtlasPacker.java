@@ -0,0 +1,45 @@
+package io.github.aratakileo.emogg.emoji;
+
+import io.github.aratakileo.emogg.util.Rect2i;
+import net.fabricmc.api.EnvType;
+import net.fabricmc.api.Environment;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.joml.Vector2i;
+
+import java.util.Collection;
+
+/**
+ * Decides where images go on an atlas page
+ */
+@Environment(EnvType.CLIENT)
+public interface EmojiAtlasPacker {
+    /**
+     * @return top left corner of the allocated area, or {@code null} if there is no room for it
+     */
+    @Nullable Vector2i allocate(int width, int height);
+
+    /**
+     * Makes the space added by growing the page available
+     */
+    void grow(int oldWidth, int oldHeight, int newWidth, int newHeight);
+
+    /**
+     * Makes a previously allocated area available again, merged with the free areas it shares an edge with
+     */
+    void free(int x, int y, int width, int height);
+
+    /**
+     * @return the free areas, only meant for debugging
+     */
+    @NotNull Collection<@NotNull Rect2i> getFreeSpace();
+
+    /**
+     * @param name {@code "skyline"} or {@code "guillotine"}, anything else is treated as {@code "skyline"}
+     */
+    static @NotNull EmojiAtlasPacker create(@NotNull String name, int width, int height) {
+        if (name.equals("guillotine")) return new GuillotineEmojiAtlasPacker(width, height);
+
+        return new SkylineEmojiAtlasPacker(width, height);
+    }
+}
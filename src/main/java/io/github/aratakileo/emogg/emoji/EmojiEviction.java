@@ -0,0 +1,84 @@
+package io.github.aratakileo.emogg.emoji;
+
+import com.mojang.blaze3d.systems.RenderSystem;
+import io.github.aratakileo.emogg.Emogg;
+import io.github.aratakileo.emogg.EmoggConfig;
+import net.fabricmc.api.EnvType;
+import net.fabricmc.api.Environment;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Comparator;
+
+/**
+ * Keeps the atlas space taken by emojis under {@link EmoggConfig#atlasBudgetMegabytes}.
+ * <p>
+ * Emojis remember the last frame they were rendered in. Once over budget, the ones unused for the longest
+ * go back to {@link Emoji.State#INACTIVE} and give their atlas space back, until usage drops a bit below the budget,
+ * so evictions do not happen every check. They are loaded again when they are rendered next time.
+ */
+@Environment(EnvType.CLIENT)
+public class EmojiEviction {
+    private final static int CHECK_INTERVAL = 20;
+    // Emojis rendered this recently are probably still on screen
+    private final static int MIN_IDLE_FRAMES = 60;
+    private final static double TARGET_USAGE = 0.9;
+
+    private static long frame = 0;
+
+    // Statistics
+    private static long evictionRuns = 0, evictedEmojis = 0;
+
+    public static long getFrame() {
+        return frame;
+    }
+
+    /**
+     * Called once per frame
+     */
+    public static void runFrame() {
+        RenderSystem.assertOnRenderThread();
+
+        if (++frame % CHECK_INTERVAL != 0) return;
+
+        final var budget = getBudgetBytes();
+
+        if (budget <= 0 || EmojiAtlas.getUsedBytes() <= budget) return;
+
+        final var candidates = EmojiManager.getInstance().getLoadedEmojis();
+        candidates.removeIf(emoji -> frame - emoji.lastRenderedFrame < MIN_IDLE_FRAMES);
+        candidates.sort(Comparator.comparingLong(emoji -> emoji.lastRenderedFrame));
+
+        final var target = (long) (budget * TARGET_USAGE);
+        var evicted = 0;
+
+        for (final var emoji: candidates) {
+            if (EmojiAtlas.getUsedBytes() <= target) break;
+
+            if (emoji.evict()) evicted++;
+        }
+
+        if (evicted == 0) return;
+
+        evictionRuns++;
+        evictedEmojis += evicted;
+
+        if (EmoggConfig.instance.enableDebugMode)
+            Emogg.LOGGER.info("[emogg] Evicted {} emojis, {}", evicted, getDebugString());
+    }
+
+    private static long getBudgetBytes() {
+        return EmoggConfig.instance.atlasBudgetMegabytes * 1024L * 1024L;
+    }
+
+    public static @NotNull String getDebugString() {
+        final var budget = getBudgetBytes();
+
+        return "Emoji atlas: %.1f/%s MiB used, %.1f MiB allocated, %s evicted in %s runs".formatted(
+                EmojiAtlas.getUsedBytes() / 1048576d,
+                budget <= 0 ? "unlimited" : budget / 1048576,
+                EmojiAtlas.getAllocatedBytes() / 1048576d,
+                evictedEmojis,
+                evictionRuns
+        );
+    }
+}
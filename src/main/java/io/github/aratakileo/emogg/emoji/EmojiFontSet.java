@@ -27,11 +27,37 @@ public class EmojiFontSet extends FontSet {
         EmojiFontSet.instance = this;
     }
 
+    /*
+     * Emoji code points are allocated in the Supplementary Private Use planes (15 and 16), so they never hit
+     * surrogates or code points with special meaning. The last two code points of each plane are noncharacters,
+     * which leaves 65534 usable code points per plane.
+     */
+    private static final int FIRST_CODE_POINT = 0xF0000,
+            CODE_POINTS_PER_PLANE = 0xFFFE,
+            PLANE_COUNT = 2;
+
+    public static final int MAX_EMOJI_COUNT = CODE_POINTS_PER_PLANE * PLANE_COUNT;
+
+    /**
+     * @return emoji id, or {@code -1} if the code point is not an emoji code point
+     */
     public static int codePointToId(int codePoint) {
-        return codePoint - 33;
+        final var offset = codePoint - FIRST_CODE_POINT;
+        final var plane = offset >> 16;
+        final var index = offset & 0xFFFF;
+
+        if (offset < 0 || plane >= PLANE_COUNT || index >= CODE_POINTS_PER_PLANE) return -1;
+
+        return plane * CODE_POINTS_PER_PLANE + index;
     }
+
+    /**
+     * @return emoji code point, or {@code -1} if the id is out of {@link #MAX_EMOJI_COUNT}
+     */
     public static int idToCodePoint(int id) {
-        return id + 33;
+        if (id < 0 || id >= MAX_EMOJI_COUNT) return -1;
+
+        return FIRST_CODE_POINT + ((id / CODE_POINTS_PER_PLANE) << 16) + id % CODE_POINTS_PER_PLANE;
     }
 
     @Override
@@ -53,10 +79,12 @@ public class EmojiFontSet extends FontSet {
 
     @Override
     public @NotNull BakedGlyph getRandomGlyph(GlyphInfo glyphInfo) {
+        // Obfuscated emojis only cycle through loaded ones, so they don't start loading the whole pack,
+        // and don't keep them from being evicted either
         return EmojiManager.getInstance()
-                .getRandomEmoji()
-                .map(Emoji::getGlyph)
-                .orElse(EmojiGlyph.ERROR);
+                .getRandomLoadedEmoji()
+                .map(Emoji::getLoadedGlyph)
+                .orElse(EmojiGlyph.LOADING);
     }
 
     @Override
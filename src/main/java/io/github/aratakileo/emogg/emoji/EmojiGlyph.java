@@ -125,6 +125,17 @@ public abstract class EmojiGlyph extends BakedGlyph implements GlyphInfo {
             this.rect = rect;
         }
 
+        @NotNull Rect2i getRect() {
+            return rect;
+        }
+
+        /**
+         * Only for atlas repacking, the UVs have to be updated afterward
+         */
+        void moveTo(int x, int y) {
+            rect.setPosition(x, y);
+        }
+
         void updateUV(int atlasWidth, int atlasHeight) {
             this.u0 = (float) rect.getX() / atlasWidth;
             this.v0 = (float) rect.getY() / atlasHeight;
@@ -7,4 +7,11 @@ import net.fabricmc.api.Environment;
 @FunctionalInterface
 public interface EmojiGlyphProvider {
     EmojiGlyph getGlyph();
+
+    /**
+     * Gives the atlas space of the glyphs back, they must not be rendered afterward
+     */
+    default void release() {
+        if (getGlyph() instanceof EmojiGlyph.Atlas atlasGlyph) EmojiAtlas.free(atlasGlyph);
+    }
 }
@@ -0,0 +1,214 @@
+package io.github.aratakileo.emogg.emoji;
+
+import io.github.aratakileo.emogg.Emogg;
+import net.fabricmc.api.EnvType;
+import net.fabricmc.api.Environment;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.*;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+
+/**
+ * Emoji name to id assignment, persisted across sessions so that ids
+ * (and the code points produced by {@link EmojiFontSet#idToCodePoint(int)}) stay the same
+ * after restarts and resource pack reorders.
+ * <p>
+ * Names not seen for {@link #MAX_UNSEEN_RELOADS} resource reloads are forgotten and their ids are given
+ * to new names, lowest first, so ids stay close to the number of emojis instead of growing forever.
+ * The file is a header followed by the name and last seen reload of every id (or a free flag),
+ * replaced when anything changed.
+ */
+@Environment(EnvType.CLIENT)
+public class EmojiIdMap {
+    private final static int MAGIC = 0x454d4f47, // "EMOG"
+            VERSION = 1;
+
+    private final static int MAX_UNSEEN_RELOADS = 16;
+
+    private final File file;
+    private final Map<@NotNull String, @NotNull Integer> nameToId = new HashMap<>();
+    // Indexed by id, `null` for free ids
+    private final List<@Nullable String> names = new ArrayList<>();
+    private final List<@NotNull Integer> lastSeenReloads = new ArrayList<>();
+    private final PriorityQueue<@NotNull Integer> freeIds = new PriorityQueue<>();
+
+    // Number of reloads finished since the file was created
+    private int reload = 0;
+    private boolean isDirty = true;
+
+    private EmojiIdMap(@NotNull File file) {
+        this.file = file;
+    }
+
+    /**
+     * Ids past {@link EmojiFontSet#MAX_EMOJI_COUNT} are still assigned, but such emojis can not be shown in text
+     */
+    public synchronized int getOrAssign(@NotNull String name) {
+        final var existingId = nameToId.get(name);
+
+        if (existingId != null) {
+            if (lastSeenReloads.get(existingId) != reload) {
+                lastSeenReloads.set(existingId, reload);
+                isDirty = true;
+            }
+
+            return existingId;
+        }
+
+        final int id;
+
+        if (freeIds.isEmpty()) {
+            id = names.size();
+            names.add(name);
+            lastSeenReloads.add(reload);
+        } else {
+            id = freeIds.poll();
+            names.set(id, name);
+            lastSeenReloads.set(id, reload);
+        }
+
+        nameToId.put(name, id);
+        isDirty = true;
+
+        if (id >= EmojiFontSet.MAX_EMOJI_COUNT)
+            Emogg.LOGGER.warn(String.format(
+                    "[emogg] Emoji :%s: got id %s, past the %s emojis which can be shown in text",
+                    name,
+                    id,
+                    EmojiFontSet.MAX_EMOJI_COUNT
+            ));
+
+        return id;
+    }
+
+    /**
+     * Forgets the names which were not assigned during the last {@link #MAX_UNSEEN_RELOADS} reloads,
+     * call it once after all emojis of a resource reload got their ids
+     */
+    public synchronized void finishReload() {
+        var forgottenCount = 0;
+
+        for (int id = 0; id < names.size(); id++) {
+            final var name = names.get(id);
+
+            if (name == null || reload - lastSeenReloads.get(id) < MAX_UNSEEN_RELOADS) continue;
+
+            nameToId.remove(name);
+            names.set(id, null);
+            freeIds.add(id);
+            forgottenCount++;
+        }
+
+        // Free ids at the end do not have to be kept
+        while (!names.isEmpty() && names.get(names.size() - 1) == null) {
+            freeIds.remove(names.size() - 1);
+            names.remove(names.size() - 1);
+            lastSeenReloads.remove(lastSeenReloads.size() - 1);
+        }
+
+        if (forgottenCount > 0)
+            Emogg.LOGGER.info("[emogg] Forgot the ids of " + forgottenCount + " emojis which were not seen for a while");
+
+        reload++;
+        isDirty = true;
+    }
+
+    public synchronized int size() {
+        return nameToId.size();
+    }
+
+    /**
+     * Writes a temporary file first and moves it over the previous one,
+     * so a crash while saving leaves the previous file as it was
+     */
+    public synchronized void save() {
+        if (!isDirty) return;
+
+        final File parentFile;
+
+        if (!(parentFile = file.getParentFile()).exists())
+            parentFile.mkdir();
+
+        final var tempFile = new File(parentFile, file.getName() + ".tmp");
+
+        try {
+            try (final var output = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(tempFile)))) {
+                output.writeInt(MAGIC);
+                output.writeInt(VERSION);
+                output.writeInt(reload);
+                output.writeInt(names.size());
+
+                for (int id = 0; id < names.size(); id++) {
+                    final var name = names.get(id);
+
+                    // Names can be empty, so free ids are flagged instead of stored as an empty name
+                    output.writeBoolean(name != null);
+
+                    if (name == null) continue;
+
+                    output.writeUTF(name);
+                    output.writeInt(lastSeenReloads.get(id));
+                }
+            }
+
+            try {
+                Files.move(tempFile.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(tempFile.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+            }
+
+            isDirty = false;
+        } catch (IOException e) {
+            Emogg.LOGGER.error("Failed to save emoji ids: ", e);
+        }
+    }
+
+    public static @NotNull EmojiIdMap load(@NotNull File file) {
+        final var idMap = new EmojiIdMap(file);
+
+        if (!file.exists()) return idMap;
+
+        try (final var input = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+            if (input.readInt() != MAGIC || input.readInt() != VERSION) {
+                Emogg.LOGGER.warn("Unsupported emoji id file, emoji ids will be reassigned");
+                return idMap;
+            }
+
+            idMap.reload = input.readInt();
+
+            final var count = input.readInt();
+
+            for (int id = 0; id < count; id++) {
+                if (!input.readBoolean()) {
+                    idMap.names.add(null);
+                    idMap.lastSeenReloads.add(idMap.reload);
+                    idMap.freeIds.add(id);
+                    continue;
+                }
+
+                final var name = input.readUTF();
+
+                idMap.names.add(name);
+                idMap.lastSeenReloads.add(input.readInt());
+                idMap.nameToId.put(name, id);
+            }
+
+            idMap.isDirty = false;
+        } catch (IOException e) {
+            // Saves replace the file at once, so it was damaged some other way.
+            // Keep the ids read so far, the file gets rewritten on the next save
+            Emogg.LOGGER.error("Failed to load emoji ids: ", e);
+            idMap.isDirty = true;
+        }
+
+        return idMap;
+    }
+}
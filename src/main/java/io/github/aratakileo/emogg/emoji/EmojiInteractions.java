@@ -8,6 +8,8 @@ import net.minecraft.network.chat.*;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
+import java.util.Collections;
+import java.util.Map;
 import java.util.Objects;
 import java.util.WeakHashMap;
 
@@ -20,7 +22,7 @@ public class EmojiInteractions {
             this.emoji = emoji;
         }
 
-        private static final WeakHashMap<Emoji, EmojiHoverEvent> cache = new WeakHashMap<>();
+        private static final Map<Emoji, EmojiHoverEvent> cache = Collections.synchronizedMap(new WeakHashMap<>());
         public static @NotNull EmojiHoverEvent of(@NotNull Emoji emoji) {
             return cache.computeIfAbsent(emoji, EmojiHoverEvent::new);
         }
@@ -78,7 +80,7 @@ public class EmojiInteractions {
             this.emoji = emoji;
         }
 
-        private static final WeakHashMap<Emoji, EmojiClickEvent> cache = new WeakHashMap<>();
+        private static final Map<Emoji, EmojiClickEvent> cache = Collections.synchronizedMap(new WeakHashMap<>());
         public static @NotNull EmojiClickEvent of(@NotNull Emoji emoji) {
             return cache.computeIfAbsent(emoji, EmojiClickEvent::new);
         }
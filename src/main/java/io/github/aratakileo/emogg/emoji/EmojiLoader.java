@@ -2,6 +2,8 @@ package io.github.aratakileo.emogg.emoji;
 
 import com.mojang.blaze3d.platform.NativeImage;
 import io.github.aratakileo.emogg.Emogg;
+import io.github.aratakileo.emogg.EmoggConfig;
+import io.github.aratakileo.emogg.util.ImageUtil;
 import io.github.aratakileo.emogg.util.NativeGifImage;
 import net.fabricmc.api.EnvType;
 import net.fabricmc.api.Environment;
@@ -19,9 +21,17 @@ import java.util.concurrent.*;
 @Environment(EnvType.CLIENT)
 @FunctionalInterface
 public interface EmojiLoader {
-    Future<? extends EmojiGlyphProvider> load();
+    /**
+     * Starts loading right away, use {@link EmojiLoadingScheduler} to have it started when there is room for it
+     */
+    CompletableFuture<? extends EmojiGlyphProvider> load();
 
-    static CompletableFuture<InputStream> resourceReader(ResourceLocation location) {
+    /**
+     * An opened emoji image with the biggest size it should be stored at
+     */
+    record ImageSource(InputStream inputStream, int maxResolution) {}
+
+    static CompletableFuture<ImageSource> resourceReader(ResourceLocation location) {
         return CompletableFuture.supplyAsync(() -> {
             var resource = Minecraft.getInstance()
                     .getResourceManager()
@@ -29,78 +39,116 @@ public interface EmojiLoader {
                     .orElseThrow(() -> new EmojiLoadingException("Resource not found: " + location));
 
             try {
-                return resource.open();
+                return new ImageSource(
+                        resource.open(),
+                        EmoggConfig.instance.packMaxEmojiResolutions.getOrDefault(
+                                resource.sourcePackId(),
+                                EmoggConfig.instance.maxEmojiResolution
+                        )
+                );
             } catch (IOException e) {
                 throw new EmojiLoadingException("Failed to open resource: " + location, e);
             }
         }, Util.ioPool());
     }
 
-    static CompletableFuture<InputStream> downloader(URL url) {
+    static CompletableFuture<ImageSource> downloader(URL url) {
         return null; // TODO
     }
 
-    static CompletableFuture<InputStream> fileReader(File file) {
+    static CompletableFuture<ImageSource> fileReader(File file) {
         return null; // TODO
     }
 
-    static CompletableFuture<EmojiGlyphProvider> staticImageLoader(CompletableFuture<InputStream> loader) {
+    static CompletableFuture<EmojiGlyphProvider> staticImageLoader(CompletableFuture<ImageSource> loader) {
         return loader
-                .thenApply(inputStream -> {
+                .thenApply(source -> {
                     NativeImage image = null;
-                    try (inputStream) {
+                    try (var inputStream = source.inputStream()) {
                         image = NativeImage.read(inputStream);
 
-                        if (image.getWidth() <= 0 || image.getHeight() <= 0)
+                        if (image.getWidth() <= 0 || image.getHeight() <= 0) {
+                            image.close();
                             throw new EmojiLoadingException("Invalid PNG image!");
+                        }
+
+                        final var downscaled = ImageUtil.downscale(image, source.maxResolution());
+
+                        if (downscaled != image) image.close();
 
-                        return image;
+                        return downscaled;
                     } catch (IOException e) {
                         if (image != null) image.close();
 
                         throw new EmojiLoadingException("Failed to load PNG image", e);
                     }
                 })
-                .thenApplyAsync(image -> {
-                    var glyph = EmojiAtlas.stitch(image);
+                .thenApply(image -> {
+                    try {
+                        final var glyph = EmojiAtlas.stitch(image);
 
-                    image.close();
-
-                    return () -> glyph;
-                }, Minecraft.getInstance());
+                        return (EmojiGlyphProvider) () -> glyph;
+                    } finally {
+                        image.close();
+                    }
+                })
+                // The glyph can only be used once its pixels are uploaded
+                .thenApplyAsync(glyphProvider -> glyphProvider, EmojiStitchQueue.EXECUTOR);
     }
 
-    static CompletableFuture<MultiFrameEmojiGlyphProvider> gifLoader(CompletableFuture<InputStream> loader) {
+    static CompletableFuture<MultiFrameEmojiGlyphProvider> gifLoader(CompletableFuture<ImageSource> loader) {
         return loader
-                .thenApply(inputStream -> {
-                    NativeGifImage gif = null;
+                .thenApply(source -> {
+                    final NativeGifImage gif;
 
-                    try (inputStream) {
+                    try (var inputStream = source.inputStream()) {
                         gif = NativeGifImage.read(inputStream);
-
-                        if (gif.getFrameCount() <= 0 || gif.getWidth() <= 0 || gif.getHeight() <= 0)
-                            throw new EmojiLoadingException("Invalid GIF image!");
-
-                        return gif;
                     } catch (IOException e) {
-                        if (gif != null) gif.close();
-
                         throw new EmojiLoadingException("Failed to load GIF image", e);
                     }
-                })
-                .thenApplyAsync(gif -> {
-                    var frames = new ArrayList<MultiFrameEmojiGlyphProvider.Frame>();
 
-                    gif.processFrames((index, time, frame) -> {
-                        frames.add(new MultiFrameEmojiGlyphProvider.Frame(
-                                EmojiAtlas.stitch(frame.nativeImage()), frame.delay()
-                        ));
+                    if (gif.getFrameCount() <= 0 || gif.getWidth() <= 0 || gif.getHeight() <= 0)
+                        throw new EmojiLoadingException("Invalid GIF image!");
+
+                    // Scaled right away, so only one full size frame is held at a time
+                    final var frames = new ArrayList<NativeGifImage.Frame>(gif.getFrameCount());
+
+                    try {
+                        gif.processFrames((index, time, frame) -> {
+                            final var image = ImageUtil.downscale(frame.nativeImage(), source.maxResolution());
 
-                        frame.nativeImage().close();
-                    });
+                            if (image != frame.nativeImage()) frame.nativeImage().close();
+
+                            frames.add(new NativeGifImage.Frame(image, frame.delay()));
+                        });
+                    } catch (RuntimeException e) {
+                        frames.forEach(frame -> frame.nativeImage().close());
+                        throw e;
+                    }
 
-                    return new MultiFrameEmojiGlyphProvider(frames);
-                }, Minecraft.getInstance());
+                    return frames;
+                })
+                .thenApply(frames -> {
+                    final var glyphFrames = new ArrayList<MultiFrameEmojiGlyphProvider.Frame>(frames.size());
+
+                    try {
+                        for (final var frame : frames)
+                            glyphFrames.add(new MultiFrameEmojiGlyphProvider.Frame(
+                                    EmojiAtlas.stitch(frame.nativeImage()),
+                                    frame.delay()
+                            ));
+                    } catch (RuntimeException e) {
+                        // Give back the space of the frames stitched so far
+                        new MultiFrameEmojiGlyphProvider(glyphFrames).release();
+                        throw e;
+                    } finally {
+                        frames.forEach(frame -> frame.nativeImage().close());
+                    }
+
+                    return new MultiFrameEmojiGlyphProvider(glyphFrames);
+                })
+                // The glyphs can only be used once their pixels are uploaded
+                .thenApplyAsync(glyphProvider -> glyphProvider, EmojiStitchQueue.EXECUTOR);
     }
 
 
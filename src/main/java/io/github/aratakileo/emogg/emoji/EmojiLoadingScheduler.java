@@ -0,0 +1,191 @@
+package io.github.aratakileo.emogg.emoji;
+
+import io.github.aratakileo.emogg.Emogg;
+import io.github.aratakileo.emogg.EmoggConfig;
+import net.fabricmc.api.EnvType;
+import net.fabricmc.api.Environment;
+import net.minecraft.Util;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.PriorityQueue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * Starts emoji loads with a cap on how many run at once, most important first.
+ * <p>
+ * Loads which were not started yet are dropped once nobody has asked for them for {@link #STALE_TIME} ms,
+ * e.g. emojis scrolled out of view. Their requests get cancelled and the emoji asks again when it is seen again.
+ * Prefetches are never dropped, nobody asks for them again.
+ */
+@Environment(EnvType.CLIENT)
+public class EmojiLoadingScheduler {
+    private final static int MAX_CONCURRENT_LOADS = Math.max(2, Runtime.getRuntime().availableProcessors() / 2);
+    private final static long STALE_TIME = 500;
+
+    private final static PriorityQueue<Request> queue = new PriorityQueue<>(
+            Comparator.<Request>comparingInt(request -> request.priority.ordinal())
+                    .thenComparingLong(request -> request.sequenceNumber)
+    );
+    private final static HashSet<Request> runningRequests = new HashSet<>();
+
+    private static int runningLoads = 0;
+    private static long nextSequenceNumber = 0;
+
+    // Statistics
+    private static long completedLoads = 0, droppedLoads = 0, totalWaitTime = 0, totalLoadTime = 0;
+
+    /**
+     * From the most to the least important
+     */
+    public enum Priority {
+        // Shown in the emoji selection menu, suggestions or the emoji button
+        MENU,
+        // Shown in chat or any other text
+        CHAT,
+        // Not shown yet, nobody waits for these
+        PREFETCH
+    }
+
+    public static synchronized @NotNull Request submit(@NotNull EmojiLoader loader, @NotNull Priority priority) {
+        final var request = new Request(loader, priority, nextSequenceNumber++);
+
+        queue.add(request);
+        startLoads();
+
+        return request;
+    }
+
+    /**
+     * Cancels every queued and running load, e.g. before the atlas is cleared.
+     * Loads which are still running finish in the background and their glyphs are released.
+     */
+    public static synchronized void cancelAll() {
+        queue.forEach(Request::cancel);
+        queue.clear();
+        runningRequests.forEach(Request::cancel);
+    }
+
+    public static synchronized int getQueueDepth() {
+        return queue.size();
+    }
+
+    public static synchronized int getRunningLoads() {
+        return runningLoads;
+    }
+
+    public static synchronized @NotNull String getDebugString() {
+        return "Emoji loads: %s queued, %s running, %s done, %s dropped, avg wait %sms, avg load %sms".formatted(
+                queue.size(),
+                runningLoads,
+                completedLoads,
+                droppedLoads,
+                completedLoads == 0 ? 0 : totalWaitTime / completedLoads,
+                completedLoads == 0 ? 0 : totalLoadTime / completedLoads
+        );
+    }
+
+    private static synchronized void startLoads() {
+        final var now = Util.getMillis();
+
+        while (runningLoads < MAX_CONCURRENT_LOADS && !queue.isEmpty()) {
+            final var request = queue.poll();
+
+            if (request.result.isDone()) continue;
+
+            if (request.priority != Priority.PREFETCH && now - request.lastRequestedAt > STALE_TIME) {
+                droppedLoads++;
+                request.result.cancel(false);
+                continue;
+            }
+
+            runningLoads++;
+            runningRequests.add(request);
+            request.startedAt = now;
+
+            final CompletableFuture<? extends EmojiGlyphProvider> loading;
+
+            try {
+                loading = request.loader.load();
+            } catch (RuntimeException e) {
+                onLoadFinished(request);
+                request.result.completeExceptionally(e);
+                continue;
+            }
+
+            loading.whenComplete((glyphProvider, throwable) -> {
+                onLoadFinished(request);
+
+                if (throwable == null) {
+                    // Cancelled while loading, nobody is going to use the glyphs
+                    if (!request.result.complete(glyphProvider)) glyphProvider.release();
+                } else
+                    request.result.completeExceptionally(throwable);
+            });
+        }
+    }
+
+    private static synchronized void onLoadFinished(@NotNull Request request) {
+        runningLoads--;
+        runningRequests.remove(request);
+        completedLoads++;
+        totalWaitTime += request.startedAt - request.submittedAt;
+        totalLoadTime += Util.getMillis() - request.startedAt;
+
+        if (EmoggConfig.instance.enableDebugMode && completedLoads % 256 == 0)
+            Emogg.LOGGER.info("[emogg] " + getDebugString());
+
+        startLoads();
+    }
+
+    private static synchronized void raisePriority(@NotNull Request request, @NotNull Priority priority) {
+        // Only queued requests are ordered, running ones are left as they are
+        if (!queue.remove(request)) return;
+
+        request.priority = priority;
+        queue.add(request);
+    }
+
+    public static class Request {
+        private final EmojiLoader loader;
+        private final long sequenceNumber, submittedAt = Util.getMillis();
+        private final CompletableFuture<EmojiGlyphProvider> result = new CompletableFuture<>();
+
+        private volatile Priority priority;
+        private volatile long lastRequestedAt = submittedAt, startedAt = -1;
+
+        private Request(@NotNull EmojiLoader loader, @NotNull Priority priority, long sequenceNumber) {
+            this.loader = loader;
+            this.priority = priority;
+            this.sequenceNumber = sequenceNumber;
+        }
+
+        /**
+         * Marks the load as still wanted, call it whenever the emoji is needed while the load is not done
+         */
+        public void touch(@NotNull Priority priority) {
+            lastRequestedAt = Util.getMillis();
+
+            if (priority.ordinal() < this.priority.ordinal()) raisePriority(this, priority);
+        }
+
+        public boolean isDone() {
+            return result.isDone();
+        }
+
+        public boolean isCancelled() {
+            return result.isCancelled();
+        }
+
+        public void cancel() {
+            result.cancel(false);
+        }
+
+        public @NotNull EmojiGlyphProvider get() throws ExecutionException, InterruptedException, CancellationException {
+            return result.get();
+        }
+    }
+}
@@ -1,24 +1,27 @@
 package io.github.aratakileo.emogg.emoji;
 
-import com.google.common.collect.Lists;
 import io.github.aratakileo.emogg.EmoggConfig;
 import io.github.aratakileo.emogg.util.EmojiUtil;
 import io.github.aratakileo.emogg.util.NativeGifImage;
 import io.github.aratakileo.emogg.util.StringUtil;
 import net.fabricmc.api.EnvType;
 import net.fabricmc.api.Environment;
+import net.fabricmc.fabric.api.resource.IdentifiableResourceReloadListener;
 import net.fabricmc.fabric.api.resource.ResourceManagerHelper;
-import net.fabricmc.fabric.api.resource.SimpleSynchronousResourceReloadListener;
 import net.minecraft.resources.ResourceLocation;
 import net.minecraft.server.packs.PackType;
 import net.minecraft.server.packs.resources.ResourceManager;
+import net.minecraft.server.packs.resources.SimplePreparableReloadListener;
+import net.minecraft.util.profiling.ProfilerFiller;
 import io.github.aratakileo.emogg.Emogg;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
+import java.io.File;
 import java.util.*;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
 import java.util.function.Predicate;
+import java.util.stream.IntStream;
 import java.util.stream.Stream;
 
 @Environment(EnvType.CLIENT)
@@ -30,177 +33,288 @@ public class EmojiManager {
     public final static Predicate<@NotNull ResourceLocation> IS_EMOJI_LOCATION
             = resourceLocation -> HAS_EMOJIS_EXTENSION.test(resourceLocation.getPath());
 
-    private final ConcurrentHashMap<@NotNull Integer, @NotNull Emoji> emojiById = new ConcurrentHashMap<>();
-    private final ConcurrentHashMap<@NotNull String, @NotNull Emoji> emojiByName = new ConcurrentHashMap<>();
+    private volatile @NotNull EmojiRegistry registry = EmojiRegistry.EMPTY;
 
-    // Only used to keep ids consistent across resource reloads
-    private final Map<@NotNull String, @NotNull Integer> nameToIdMap = new HashMap<>();
-    private final ConcurrentHashMap<@NotNull String, @NotNull List<@NotNull String>> emojiCategories
-            = new ConcurrentHashMap<>();
+    // Emojis of the current registry with a loaded glyph, see `getRandomLoadedEmoji()`
+    private final ArrayList<@NotNull Emoji> loadedEmojis = new ArrayList<>();
 
-    private EmojiManager() {
-        // All logic in `init()`
+    // Keeps ids consistent across resource reloads and sessions
+    private final EmojiIdMap idMap;
+
+    private EmojiManager(@NotNull EmojiIdMap idMap) {
+        this.idMap = idMap;
+    }
+
+    /**
+     * @return the current registry snapshot, use it when several lookups must be consistent with each other
+     */
+    public @NotNull EmojiRegistry getRegistry() {
+        return registry;
     }
 
     public boolean isEmpty() {
-        return emojiByName.isEmpty();
+        return registry.isEmpty();
     }
 
     public boolean hasEmoji(int id) {
-        return emojiById.containsKey(id);
+        return getEmoji(id) != null;
     }
 
     public boolean hasEmoji(@NotNull String name) {
-        return emojiByName.containsKey(name);
+        return registry.hasEmoji(name);
     }
 
     public @Nullable Emoji getEmoji(int id) {
-        return emojiById.get(id);
+        return registry.getEmoji(id);
     }
 
     public @Nullable Emoji getEmoji(@NotNull String name) {
-        return emojiByName.get(name);
+        return registry.getEmoji(name);
+    }
+
+    /**
+     * Looks up an emoji by the name located in {@code text} between {@code start} and {@code end},
+     * without creating a substring
+     */
+    public @Nullable Emoji getEmoji(@NotNull CharSequence text, int start, int end) {
+        return registry.getEmoji(text, start, end);
     }
 
     public boolean hasCategory(@NotNull String categoryKey) {
-        return emojiCategories.containsKey(categoryKey);
+        return registry.hasCategory(categoryKey);
     }
 
     public @NotNull List<String> getCategoryKeys() {
-        return emojiCategories.keySet().stream().toList();
+        return List.copyOf(registry.getCategoryKeys());
     }
 
     public @Nullable List<@NotNull Emoji> getEmojisByCategory(@NotNull String name) {
         if (name.equals(FueController.CATEGORY_FREQUENTLY_USED))
             return FueController.getEmojis();
 
-        if (!emojiCategories.containsKey(name)) return null;
-
-        return emojiCategories.get(name).stream().map(emojiByName::get).toList();
+        return registry.getCategory(name);
     }
 
     public @NotNull Stream<@NotNull Emoji> getEmojisStream() {
-        return Lists.newArrayList(emojiByName.values()).stream();
+        return registry.getEmojis().stream();
     }
 
     public @NotNull Optional<Emoji> getRandomEmoji() {
-        return emojiByName.values()
-                .stream()
-                .skip((int) (emojiByName.size() * Math.random()))
-                .findFirst();
+        return Optional.ofNullable(registry.getRandomEmoji());
     }
 
-    // TODO: refactor name generation to work with different loader readers
+    /**
+     * Unlike {@link #getRandomEmoji()}, only picks emojis whose glyphs are already loaded,
+     * so it never starts loading anything
+     */
+    public @NotNull Optional<Emoji> getRandomLoadedEmoji() {
+        synchronized (loadedEmojis) {
+            if (loadedEmojis.isEmpty()) return Optional.empty();
 
-    public void regEmoji(@NotNull ResourceLocation resourceLocation) {
-        var emojiName = EmojiUtil.normalizeEmojiObjectKey(EmojiUtil.getNameFromPath(resourceLocation));
-        emojiName = getUniqueName(resourceLocation, emojiName);
-
-        if (Objects.isNull(emojiName)) {
-            if (EmoggConfig.instance.enableDebugMode)
-                Emogg.LOGGER.error(String.format(
-                        "Failed to load %s, because it is already defined",
-                        StringUtil.repr(resourceLocation)
-                ));
+            return Optional.of(loadedEmojis.get(ThreadLocalRandom.current().nextInt(loadedEmojis.size())));
+        }
+    }
 
-            return;
+    /**
+     * @return a copy of the emojis of the current registry with a loaded glyph
+     */
+    public @NotNull ArrayList<@NotNull Emoji> getLoadedEmojis() {
+        synchronized (loadedEmojis) {
+            return new ArrayList<>(loadedEmojis);
         }
+    }
+
+    void onEmojiLoaded(@NotNull Emoji emoji) {
+        // Emojis of an older registry can still finish loading
+        if (registry.getEmoji(emoji.getId()) != emoji) return;
 
-        int id;
-        synchronized (nameToIdMap) {
-            id = nameToIdMap.computeIfAbsent(emojiName, name -> nameToIdMap.size());
+        synchronized (loadedEmojis) {
+            if (emoji.loadedIndex != -1) return;
+
+            emoji.loadedIndex = loadedEmojis.size();
+            loadedEmojis.add(emoji);
         }
+    }
 
-        var emoji = Emoji.fromResource(id, emojiName, resourceLocation);
+    void onEmojiUnloaded(@NotNull Emoji emoji) {
+        synchronized (loadedEmojis) {
+            final var index = emoji.loadedIndex;
 
-        emojiByName.put(emojiName, emoji);
-        emojiById.put(emoji.getId(), emoji);
+            if (index == -1 || index >= loadedEmojis.size() || loadedEmojis.get(index) != emoji) return;
 
-        regEmojiInItsCategory(emoji);
+            // Swap with the last one, so removal stays O(1)
+            final var lastEmoji = loadedEmojis.remove(loadedEmojis.size() - 1);
 
-        if (EmoggConfig.instance.enableDebugMode)
-            Emogg.LOGGER.info(String.format(
-                    "Discovered %s as %s to category <%s>",
-                    StringUtil.repr(resourceLocation),
-                    emoji.getCode(),
-                    emoji.getCategory()
-            ));
-   }
-
-    private @Nullable String getUniqueName(@NotNull ResourceLocation resourceLocation, @NotNull String emojiName) {
-        if (emojiByName.containsKey(emojiName)) {
-//            if (emojiByName.get(emojiName).getResourceLocation().equals(resourceLocation))
-//                return null;
-
-            var emojiNameIndex = 0;
-            var newEmojiName = emojiName + emojiNameIndex;
-
-            while (emojiByName.containsKey(newEmojiName)) {
-                emojiNameIndex++;
-                newEmojiName = emojiName + emojiNameIndex;
+            if (lastEmoji != emoji) {
+                loadedEmojis.set(index, lastEmoji);
+                lastEmoji.loadedIndex = index;
             }
 
-            return newEmojiName;
+            emoji.loadedIndex = -1;
         }
-
-        return emojiName;
     }
 
-    private void regEmojiInItsCategory(@NotNull Emoji emoji) {
-        if (!emojiCategories.containsKey(emoji.getCategory()))
-            emojiCategories.put(emoji.getCategory(), new ArrayList<>());
+    // TODO: refactor name generation to work with different loader readers
+
+    /**
+     * Turns emoji resources into emojis with unique names and ids.
+     * <p>
+     * Names are normalized and emojis are created in parallel. Name collisions are resolved in a single pass,
+     * in the order of {@code resourceLocations} so the result is deterministic,
+     * by appending the next free number to the name ({@code name0}, {@code name1}, ...).
+     * The next number to try is remembered per name, so many files sharing a name stay linear.
+     */
+    private @NotNull List<@NotNull Emoji> discoverEmojis(@NotNull List<@NotNull ResourceLocation> resourceLocations) {
+        final var normalizedNames = resourceLocations.parallelStream()
+                .map(resourceLocation -> EmojiUtil.normalizeEmojiObjectKey(EmojiUtil.getNameFromPath(resourceLocation)))
+                .toList();
+
+        final var takenNames = new HashSet<@NotNull String>();
+        final var nextNameIndexes = new HashMap<@NotNull String, @NotNull Integer>();
+        final var emojiNames = new String[normalizedNames.size()];
+        final var ids = new int[normalizedNames.size()];
+
+        synchronized (idMap) {
+            for (int i = 0; i < emojiNames.length; i++) {
+                var emojiName = normalizedNames.get(i);
+
+                if (!takenNames.add(emojiName)) {
+                    var emojiNameIndex = (int) nextNameIndexes.getOrDefault(emojiName, 0);
+                    String newEmojiName;
+
+                    do {
+                        newEmojiName = emojiName + emojiNameIndex++;
+                    } while (!takenNames.add(newEmojiName));
+
+                    nextNameIndexes.put(emojiName, emojiNameIndex);
+                    emojiName = newEmojiName;
+                }
+
+                emojiNames[i] = emojiName;
+                ids[i] = idMap.getOrAssign(emojiName);
+            }
+        }
 
-        final var emojiNamesInCategory = emojiCategories.get(emoji.getCategory());
+        return IntStream.range(0, emojiNames.length).parallel().mapToObj(i -> {
+            final var resourceLocation = resourceLocations.get(i);
+            final var emoji = Emoji.fromResource(ids[i], emojiNames[i], resourceLocation);
 
-        if (emojiNamesInCategory.contains(emoji.getName()))
-            return;
+            if (EmoggConfig.instance.enableDebugMode)
+                Emogg.LOGGER.info(String.format(
+                        "Discovered %s as %s to category <%s>",
+                        StringUtil.repr(resourceLocation),
+                        emoji.getCode(),
+                        emoji.getCategory()
+                ));
 
-        emojiNamesInCategory.add(emoji.getName());
+            return emoji;
+        }).toList();
     }
 
-    private void onResourceReload(@NotNull ResourceManager resourceManager) {
-        final var startsLoadingAt = System.currentTimeMillis();
+    /**
+     * Everything a reload needs, built in the background so that applying it is just swapping the registry
+     */
+    private record Preparation(@NotNull EmojiRegistry registry, long preparationTime) { }
+
+    private @NotNull Preparation prepare(@NotNull ResourceManager resourceManager) {
+        final var startsPreparingAt = System.currentTimeMillis();
 
         if (EmoggConfig.instance.enableDebugMode)
             Emogg.LOGGER.info("[emogg] Updating emoji lists...");
 
+        // Sorted, so that name collisions are always resolved the same way
+        final var resourceLocations = resourceManager.listResources(EmojiUtil.EMOJI_FOLDER_NAME, IS_EMOJI_LOCATION)
+                .keySet()
+                .stream()
+                .sorted()
+                .toList();
+
+        return new Preparation(prepareRegistry(resourceLocations), System.currentTimeMillis() - startsPreparingAt);
+    }
+
+    /**
+     * Discovers the emojis and gives them ids, the part of a reload which does not depend on the resource manager
+     *
+     * @param resourceLocations emoji resources, name collisions are resolved in their order
+     */
+    @NotNull EmojiRegistry prepareRegistry(@NotNull List<@NotNull ResourceLocation> resourceLocations) {
+        final var emojis = discoverEmojis(resourceLocations);
+
+        synchronized (idMap) {
+            idMap.finishReload();
+            idMap.save();
+        }
+
+        return new EmojiRegistry(emojis);
+    }
+
+    private void apply(@NotNull Preparation preparation) {
+        final var startsApplyingAt = System.currentTimeMillis();
+
+        // Loads of the old emojis must not stitch into the new atlas for nothing
+        EmojiLoadingScheduler.cancelAll();
         EmojiAtlas.clear();
 
-        emojiCategories.clear();
-        emojiById.clear();
-        emojiByName.clear();
+        registry = preparation.registry();
 
-        resourceManager.listResources(EmojiUtil.EMOJI_FOLDER_NAME, IS_EMOJI_LOCATION)
-                .keySet()
-                .forEach(this::regEmoji);
+        synchronized (loadedEmojis) {
+            loadedEmojis.clear();
+        }
 
-        emojiCategories.values().forEach(Collections::sort);
+        EmojiParsePlan.clearCache();
+        FueController.removeAllNonExistentFue();
 
         Emogg.LOGGER.info(String.format(
-                "[emogg] The emoji list has been updated. Discovered %s emojis in %ss!",
-                emojiByName.size(),
-                (System.currentTimeMillis() - startsLoadingAt) / 1000d
+                "[emogg] The emoji list has been updated. Discovered %s emojis in %ss (applied in %ss)!",
+                registry.size(),
+                preparation.preparationTime() / 1000d,
+                (System.currentTimeMillis() - startsApplyingAt) / 1000d
         ));
+    }
 
-        FueController.removeAllNonExistentFue();
+    private static class ReloadListener
+            extends SimplePreparableReloadListener<Preparation>
+            implements IdentifiableResourceReloadListener {
+        @Override
+        public ResourceLocation getFabricId() {
+            return new ResourceLocation(Emogg.NAMESPACE_OR_ID, EmojiUtil.EMOJI_FOLDER_NAME);
+        }
+
+        @Override
+        protected @NotNull Preparation prepare(@NotNull ResourceManager resourceManager, @NotNull ProfilerFiller profiler) {
+            return getInstance().prepare(resourceManager);
+        }
+
+        @Override
+        protected void apply(@NotNull Preparation preparation, @NotNull ResourceManager resourceManager, @NotNull ProfilerFiller profiler) {
+            getInstance().apply(preparation);
+        }
     }
 
     public static void init() {
-        instance = new EmojiManager();
-
-        ResourceManagerHelper.get(PackType.CLIENT_RESOURCES).registerReloadListener(
-                new SimpleSynchronousResourceReloadListener() {
-                    @Override
-                    public ResourceLocation getFabricId() {
-                        return new ResourceLocation(Emogg.NAMESPACE_OR_ID, EmojiUtil.EMOJI_FOLDER_NAME);
-                    }
-
-                    @Override
-                    public void onResourceManagerReload(ResourceManager resourceManager) {
-                        instance.onResourceReload(resourceManager);
-                    }
-                }
-        );
+        init(EmojiIdMap.load(new File("config/emogg_ids.bin")));
+
+        ResourceManagerHelper.get(PackType.CLIENT_RESOURCES).registerReloadListener(new ReloadListener());
+    }
+
+    /**
+     * Sets up the manager without listening to resource reloads, used by tests together with {@link #setRegistry(EmojiRegistry)}
+     */
+    static @NotNull EmojiManager init(@NotNull EmojiIdMap idMap) {
+        return instance = new EmojiManager(idMap);
+    }
+
+    /**
+     * Publishes the registry without a resource reload
+     */
+    void setRegistry(@NotNull EmojiRegistry registry) {
+        this.registry = registry;
+
+        synchronized (loadedEmojis) {
+            loadedEmojis.clear();
+        }
+
+        EmojiParsePlan.clearCache();
     }
 
     public static @NotNull EmojiManager getInstance() {
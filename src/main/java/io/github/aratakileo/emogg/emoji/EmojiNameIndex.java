@@ -0,0 +1,96 @@
+package io.github.aratakileo.emogg.emoji;
+
+import net.fabricmc.api.EnvType;
+import net.fabricmc.api.Environment;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Immutable emoji lookup table by name, built once per resource reload.
+ * <p>
+ * It is an open addressing hash table (linear probing) which can be queried with any char range,
+ * so looking up a name found inside a chat message needs no substring and no boxing.
+ */
+@Environment(EnvType.CLIENT)
+public final class EmojiNameIndex {
+    public static final EmojiNameIndex EMPTY = new EmojiNameIndex(List.of());
+
+    private final @Nullable Emoji[] slots;
+    private final int[] hashes;
+    private final int mask;
+    private final int size;
+
+    public EmojiNameIndex(@NotNull Collection<@NotNull Emoji> emojis) {
+        // Keep the load factor at or below 0.5, so probe sequences stay short
+        final var capacity = Math.max(2, Integer.highestOneBit(Math.max(1, emojis.size()) * 2 - 1) << 1);
+
+        this.slots = new Emoji[capacity];
+        this.hashes = new int[capacity];
+        this.mask = capacity - 1;
+
+        var size = 0;
+
+        for (final var emoji: emojis) {
+            final var name = emoji.getName();
+            final var hash = name.hashCode();
+            var index = spread(hash) & mask;
+
+            while (slots[index] != null) {
+                if (hashes[index] == hash && slots[index].getName().equals(name)) break;
+
+                index = (index + 1) & mask;
+            }
+
+            if (slots[index] == null) size++;
+
+            slots[index] = emoji;
+            hashes[index] = hash;
+        }
+
+        this.size = size;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public @Nullable Emoji get(@NotNull CharSequence name) {
+        return get(name, 0, name.length());
+    }
+
+    public @Nullable Emoji get(@NotNull CharSequence text, int start, int end) {
+        // Same as String.hashCode(), so names can be hashed without creating strings
+        var hash = 0;
+
+        for (int i = start; i < end; i++)
+            hash = 31 * hash + text.charAt(i);
+
+        var index = spread(hash) & mask;
+        Emoji emoji;
+
+        while ((emoji = slots[index]) != null) {
+            if (hashes[index] == hash && regionEquals(emoji.getName(), text, start, end))
+                return emoji;
+
+            index = (index + 1) & mask;
+        }
+
+        return null;
+    }
+
+    private static int spread(int hash) {
+        return hash ^ (hash >>> 16);
+    }
+
+    private static boolean regionEquals(@NotNull String name, @NotNull CharSequence text, int start, int end) {
+        if (name.length() != end - start) return false;
+
+        for (int i = 0; i < name.length(); i++)
+            if (name.charAt(i) != text.charAt(start + i)) return false;
+
+        return true;
+    }
+}
@@ -0,0 +1,193 @@
+package io.github.aratakileo.emogg.emoji;
+
+import io.github.aratakileo.emogg.Emogg;
+import io.github.aratakileo.emogg.EmoggConfig;
+import io.github.aratakileo.emogg.mixin.ParsedComponent;
+import net.fabricmc.api.EnvType;
+import net.fabricmc.api.Environment;
+import net.minecraft.network.chat.Component;
+import net.minecraft.network.chat.MutableComponent;
+import net.minecraft.network.chat.Style;
+// 1.20.1
+import net.minecraft.network.chat.contents.LiteralContents;
+// 1.20.4
+//import net.minecraft.network.chat.contents.PlainTextContents;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Immutable result of parsing a literal text: the text spans and emojis in their order.
+ * <p>
+ * Plans are cached by the text they were built from, so repeated strings (scoreboards, boss bars,
+ * tab list, broadcasts) only get scanned once. Texts without emoji syntax are cached as {@link #EMPTY},
+ * so plain text is not scanned again either. {@link #clearCache()} must be called whenever the emoji list changes.
+ */
+@Environment(EnvType.CLIENT)
+public final class EmojiParsePlan {
+    /**
+     * Plan of the texts without emoji syntax, they are left as they are
+     */
+    public final static EmojiParsePlan EMPTY = new EmojiParsePlan(new String[0], new Style[0]);
+
+    private final static int MAX_CACHED_PLANS = 1024,
+            MAX_CACHED_CHARS = 1 << 16,
+            HIT_RATE_REPORT_INTERVAL = 4096;
+
+    private final static LinkedHashMap<@NotNull String, @NotNull EmojiParsePlan> cache
+            = new LinkedHashMap<>(64, 0.75f, true);
+    private static int cachedChars = 0;
+    private static long hits = 0, misses = 0;
+
+    /**
+     * Every element is the text of a resulting literal component.
+     * For emojis, it is the code point of the emoji in {@link EmojiFontSet}.
+     */
+    private final String[] texts;
+
+    /**
+     * {@code null} for plain text spans, the emoji style otherwise
+     */
+    private final @Nullable Style[] styles;
+
+    private EmojiParsePlan(@NotNull String[] texts, @Nullable Style[] styles) {
+        this.texts = texts;
+        this.styles = styles;
+    }
+
+    public @NotNull List<Component> toComponents() {
+        final var components = new ArrayList<Component>(texts.length);
+
+        for (int i = 0; i < texts.length; i++) {
+// 1.20.1
+            final var component = MutableComponent.create(new LiteralContents(texts[i]));
+// 1.20.4
+//            final var component = MutableComponent.create(new PlainTextContents.LiteralContents(texts[i]));
+
+            if (styles[i] != null) component.setStyle(styles[i]);
+
+            // Escaped emojis are plain text now, they must not be parsed again
+            ((ParsedComponent) component).emogg$markParseChecked();
+
+            components.add(component);
+        }
+
+        return components;
+    }
+
+    /**
+     * @return the plan for the text, {@link #EMPTY} if the text has no emoji syntax at all
+     */
+    public static @NotNull EmojiParsePlan of(@NotNull String text) {
+        synchronized (cache) {
+            final var plan = cache.get(text);
+
+            if (plan != null) {
+                hits++;
+                reportHitRate();
+
+                return plan;
+            }
+        }
+
+        final var plan = build(text);
+
+        synchronized (cache) {
+            misses++;
+            reportHitRate();
+
+            if (text.length() > MAX_CACHED_CHARS) return plan;
+
+            if (cache.put(text, plan) == null) cachedChars += text.length();
+
+            final Iterator<Map.Entry<String, EmojiParsePlan>> iterator = cache.entrySet().iterator();
+
+            while ((cache.size() > MAX_CACHED_PLANS || cachedChars > MAX_CACHED_CHARS) && iterator.hasNext()) {
+                cachedChars -= iterator.next().getKey().length();
+                iterator.remove();
+            }
+        }
+
+        return plan;
+    }
+
+    public static void clearCache() {
+        synchronized (cache) {
+            cache.clear();
+            cachedChars = 0;
+            hits = misses = 0;
+        }
+    }
+
+    private static void reportHitRate() {
+        final var lookups = hits + misses;
+
+        if (!EmoggConfig.instance.enableDebugMode || lookups % HIT_RATE_REPORT_INTERVAL != 0) return;
+
+        Emogg.LOGGER.info(String.format(
+                "[emogg] Parse cache: %.1f%% hit rate over %s lookups, %s plans (%s chars) cached",
+                hits * 100d / lookups,
+                lookups,
+                cache.size(),
+                cachedChars
+        ));
+    }
+
+    private static @NotNull EmojiParsePlan build(@NotNull String text) {
+        final var scanner = new EmojiScanner(text);
+
+        if (!scanner.find()) return EMPTY;
+
+        final var texts = new ArrayList<String>();
+        final var styles = new ArrayList<Style>();
+
+        final var stringBuilder = new StringBuilder();
+        int lastEnd = 0;
+        do {
+            if (scanner.isEscaped()) {
+                stringBuilder.append(text, lastEnd, scanner.start())
+                        .append(text, scanner.start() + 1, scanner.end());
+
+                lastEnd = scanner.end();
+                continue;
+            }
+
+            final var emoji = scanner.getEmoji();
+            final var codePoint = emoji == null ? -1 : EmojiFontSet.idToCodePoint(emoji.getId());
+
+            // Unknown emojis (and the ones past the code point space) stay as normal text,
+            // they get appended together with the next span
+            if (codePoint == -1) continue;
+
+            stringBuilder.append(text, lastEnd, scanner.start());
+
+            if (!stringBuilder.isEmpty()) {
+                texts.add(stringBuilder.toString());
+                styles.add(null);
+                stringBuilder.setLength(0);
+            }
+
+            lastEnd = scanner.end();
+
+            texts.add(Character.toString(codePoint));
+            styles.add(
+                    Style.EMPTY
+                            .withFont(EmojiFontSet.NAME)
+                            .withHoverEvent(EmojiInteractions.EmojiHoverEvent.of(emoji))
+                            .withClickEvent(EmojiInteractions.EmojiClickEvent.of(emoji))
+            );
+        } while (scanner.find());
+
+        // Ending
+        stringBuilder.append(text, lastEnd, text.length());
+        texts.add(stringBuilder.toString());
+        styles.add(null);
+
+        return new EmojiParsePlan(texts.toArray(String[]::new), styles.toArray(Style[]::new));
+    }
+}
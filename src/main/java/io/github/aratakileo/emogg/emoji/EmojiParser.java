@@ -3,12 +3,13 @@ package io.github.aratakileo.emogg.emoji;
 import com.mojang.blaze3d.systems.RenderSystem;
 import io.github.aratakileo.emogg.Emogg;
 import io.github.aratakileo.emogg.EmoggConfig;
-import io.github.aratakileo.emogg.util.WeakIdentityHashMap;
+import io.github.aratakileo.emogg.mixin.ParsedComponent;
 import net.fabricmc.api.EnvType;
 import net.fabricmc.api.Environment;
 import net.minecraft.network.chat.*;
 // 1.20.1
 import net.minecraft.network.chat.contents.LiteralContents;
+import net.minecraft.network.chat.contents.TranslatableContents;
 // 1.20.4
 //import net.minecraft.network.chat.contents.PlainTextContents;
 import org.jetbrains.annotations.Nullable;
@@ -22,24 +23,6 @@ import java.util.regex.Pattern;
 public class EmojiParser {
     public final static Pattern PATTERN = Pattern.compile("(\\\\?)[:：]([_A-Za-z0-9]+)[:：]");
 
-    private static final WeakIdentityHashMap<MutableComponent, MutableComponent> parsedToOriginal = new WeakIdentityHashMap<>();
-
-    public record Section(int start, int end, String emoji, boolean escaped) { }
-
-    public static List<Section> getEmojiSections(String text) {
-        final var matcher = PATTERN.matcher(text);
-        List<Section> sections = new ArrayList<>();
-        while (matcher.find()) {
-            sections.add(new Section(
-                    matcher.start(),
-                    matcher.end(),
-                    matcher.group(2), // Emoji name
-                    !matcher.group(1).isEmpty() // Is escaped
-            ));
-        }
-        return sections;
-    }
-
     private static void _parse(MutableComponent component) {
 // 1.20.1
         if (component.getContents() instanceof LiteralContents literalContents) {
@@ -47,81 +30,20 @@ public class EmojiParser {
 //        if (component.getContents() instanceof PlainTextContents.LiteralContents literalContents) {
             final var originalText = literalContents.text();
 
-            final var sections = getEmojiSections(originalText);
+            final var plan = EmojiParsePlan.of(originalText);
 
-            if (sections.isEmpty()) return;
+            if (plan == EmojiParsePlan.EMPTY) return;
 
             if (EmoggConfig.instance.enableDebugMode)
                 Emogg.LOGGER.debug("Parsing <"+component+">");
 
-            parsedToOriginal.put(component, component.copy());
-
-            List<Component> components = new ArrayList<>();
+            final var original = component.copy();
 
-            var stringBuilder = new StringBuilder();
-            int lastEnd = 0;
-            for (int i = 0; i < sections.size() + 1; i++) {
-                if (i != sections.size()) {
-                    var section = sections.get(i);
+            // The original must stay as it is
+            ((ParsedComponent) original).emogg$markParseChecked();
+            ((ParsedComponent) component).emogg$setOriginal(original);
 
-                    stringBuilder.append(
-                            originalText,
-                            lastEnd,
-                            section.start()
-                    );
-
-                    if (!section.escaped()) {
-                        var emoji = EmojiManager.getInstance().getEmoji(section.emoji());
-
-                        if (emoji != null) {
-                            if (!stringBuilder.isEmpty()) {
-// 1.20.1
-                                components.add(MutableComponent.create(new LiteralContents(stringBuilder.toString())));
-// 1.20.4
-//                                components.add(MutableComponent.create(new PlainTextContents.LiteralContents(stringBuilder.toString())));
-                                stringBuilder.setLength(0);
-                            }
-
-                            // We only set lastEnd if the escaped or emoji is valid.
-                            // Since, otherwise, the string builder should append the emoji syntax as normal text later.
-                            lastEnd = section.end();
-
-// 1.20.1
-                            final var emojiComponent = MutableComponent.create(new LiteralContents(
-// 1.20.4
-//                            final var emojiComponent = MutableComponent.create(new PlainTextContents.LiteralContents(
-                                    Character.toString(EmojiFontSet.idToCodePoint(emoji.getId()))
-                            ));
-                            emojiComponent.setStyle(
-                                    Style.EMPTY
-                                        .withFont(EmojiFontSet.NAME)
-                                        .withHoverEvent(EmojiInteractions.EmojiHoverEvent.of(emoji))
-                                        .withClickEvent(EmojiInteractions.EmojiClickEvent.of(emoji))
-                            );
-                            components.add(emojiComponent);
-                        }
-                    } else { // escaped
-                        stringBuilder.append(
-                                originalText,
-                                section.start() + 1,
-                                section.end()
-                        );
-
-                        lastEnd = section.end();
-                    }
-                } else { // Ending
-                    stringBuilder.append(
-                            originalText,
-                            lastEnd,
-                            originalText.length()
-                    );
-                }
-            }
-
-// 1.20.1
-            components.add(MutableComponent.create(new LiteralContents(stringBuilder.toString())));
-// 1.20.4
-//            components.add(MutableComponent.create(new PlainTextContents.LiteralContents(stringBuilder.toString())));
+            final var components = plan.toComponents();
 
             // Add old extra components back
             components.addAll(component.getSiblings());
@@ -139,24 +61,78 @@ public class EmojiParser {
         }
     }
 
-    // Avoid infinite recursions
-    private static boolean parsing = false;
+    /**
+     * Parser state is confined to the thread doing the parsing,
+     * so components can be parsed on any thread, not only on the render one
+     */
+    private static final class State {
+        // Avoid infinite recursions
+        private boolean parsing = false;
+        private boolean inGetString = false;
+    }
+
+    private static final ThreadLocal<State> state = ThreadLocal.withInitial(State::new);
+
+    // Components are locked through these, picked by identity hash, since anyone else may lock on a component.
+    // A thread only ever holds one of them, parsing is not reentrant
+    private static final Object[] parseLocks = new Object[64];
 
+    static {
+        Arrays.setAll(parseLocks, i -> new Object());
+    }
+
+    /**
+     * Parses the component if it has not been checked yet.
+     * <p>
+     * Nothing happens when a component is constructed, this is called on its first render
+     * (see {@link io.github.aratakileo.emogg.mixin.mixins.parsing.MutableComponentMixin}
+     * and {@link io.github.aratakileo.emogg.mixin.mixins.parsing.ComponentMixin}),
+     * so components which are never displayed are never scanned for emojis.
+     * <p>
+     * Concurrent calls for the same component are safe, one of them does the parsing and the others wait for it.
+     */
     public static void parse(MutableComponent component) {
-        if (!isParsable(component)) return;
-        if (parsedToOriginal.containsKey(component)) return;
-        try {
-            if (!parsing) {
-                parsing = true;
-                _parse(component);
-                parsing = false;
+        final var parsedComponent = (ParsedComponent) component;
+
+        if (parsedComponent.emogg$isParseChecked()) return;
+
+        final var currentState = state.get();
+
+        if (currentState.parsing) return;
+
+        synchronized (parseLocks[System.identityHashCode(component) & (parseLocks.length - 1)]) {
+            if (parsedComponent.emogg$isParseChecked()) return;
+
+            try {
+                currentState.parsing = true;
+                if (isParsable(component)) _parse(component);
+            } catch (Exception e) {
+                Emogg.LOGGER.warn("Failed to parse component <"+component+">", e);
+            } finally {
+                currentState.parsing = false;
+                parsedComponent.emogg$markParseChecked();
             }
-        } catch (Exception e) {
-            parsing = false;
-            Emogg.LOGGER.warn("Failed to parse component <"+component+">", e);
         }
     }
 
+    /**
+     * Parses the component, its siblings and translation arguments right away, on the calling thread.
+     * <p>
+     * Used to parse incoming chat before it reaches the render thread,
+     * see {@link io.github.aratakileo.emogg.mixin.mixins.network.ClientPacketListenerMixin}.
+     */
+    public static void parseTree(Component component) {
+        if (component instanceof MutableComponent mutableComponent)
+            parse(mutableComponent);
+
+        if (component.getContents() instanceof TranslatableContents translatableContents)
+            for (final var arg: translatableContents.getArgs())
+                if (arg instanceof Component argComponent) parseTree(argComponent);
+
+        for (final var sibling: component.getSiblings())
+            parseTree(sibling);
+    }
+
     /**
      * Helper method used for early-exit optimizations
      */
@@ -186,7 +162,7 @@ public class EmojiParser {
 
     public static @Nullable MutableComponent getOriginal(Component component) {
         if (!mayBeParseResult(component)) return null;
-        return parsedToOriginal.get((MutableComponent) component);
+        return ((ParsedComponent) component).emogg$getOriginal();
     }
 
     // Mixin helpers
@@ -198,8 +174,6 @@ public class EmojiParser {
      * If one is found, execute the operation with the original component,
      * set the injected function's return value to the result of the operation,
      * and cancel the injected function.
-     * <p>
-     * This also detects the current thread, so that it does not alter things on the server thread.
      */
     public static <T> void mixinApplyUsingOriginal(
             Component component,
@@ -225,5 +199,11 @@ public class EmojiParser {
      * we always use the original components in this method and the methods it calls
      * ({@link Component#visit(FormattedText.ContentConsumer)} and {@link Component#visit(FormattedText.StyledContentConsumer, Style)}).
      */
-    public static boolean isInGetString = false;
+    public static boolean isInGetString() {
+        return state.get().inGetString;
+    }
+
+    public static void setInGetString(boolean inGetString) {
+        state.get().inGetString = inGetString;
+    }
 }
@@ -0,0 +1,84 @@
+package io.github.aratakileo.emogg.emoji;
+
+import net.fabricmc.api.EnvType;
+import net.fabricmc.api.Environment;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Immutable emoji list sorted by name, built once per resource reload.
+ * <p>
+ * All emojis whose names start with some prefix form a contiguous range of it,
+ * found with two binary searches: {@code [fromIndex(prefix), toIndex(prefix))}.
+ */
+@Environment(EnvType.CLIENT)
+public final class EmojiPrefixIndex {
+    public static final EmojiPrefixIndex EMPTY = new EmojiPrefixIndex(List.of());
+
+    private final Emoji[] sortedEmojis;
+
+    public EmojiPrefixIndex(@NotNull Collection<@NotNull Emoji> emojis) {
+        this.sortedEmojis = emojis.toArray(Emoji[]::new);
+
+        Arrays.sort(sortedEmojis, Comparator.comparing(Emoji::getName));
+    }
+
+    public int size() {
+        return sortedEmojis.length;
+    }
+
+    public @NotNull Emoji get(int index) {
+        return sortedEmojis[index];
+    }
+
+    /**
+     * @return position of the emoji with the name, or {@code -1}
+     */
+    public int indexOf(@NotNull String name) {
+        final var index = fromIndex(name);
+
+        return index < sortedEmojis.length && sortedEmojis[index].getName().equals(name) ? index : -1;
+    }
+
+    /**
+     * @return position of the first emoji whose name starts with the prefix
+     */
+    public int fromIndex(@NotNull String prefix) {
+        var low = 0;
+        var high = sortedEmojis.length;
+
+        while (low < high) {
+            final var middle = (low + high) >>> 1;
+
+            if (sortedEmojis[middle].getName().compareTo(prefix) < 0)
+                low = middle + 1;
+            else
+                high = middle;
+        }
+
+        return low;
+    }
+
+    /**
+     * @return position after the last emoji whose name starts with the prefix
+     */
+    public int toIndex(@NotNull String prefix) {
+        var low = fromIndex(prefix);
+        var high = sortedEmojis.length;
+
+        while (low < high) {
+            final var middle = (low + high) >>> 1;
+
+            if (sortedEmojis[middle].getName().startsWith(prefix))
+                low = middle + 1;
+            else
+                high = middle;
+        }
+
+        return low;
+    }
+}
@@ -0,0 +1,141 @@
+package io.github.aratakileo.emogg.emoji;
+
+import net.fabricmc.api.EnvType;
+import net.fabricmc.api.Environment;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.*;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Immutable snapshot of all registered emojis.
+ * <p>
+ * A new snapshot is built (off-thread on resource reload) and published by {@link EmojiManager} as a whole,
+ * so readers always see a consistent registry, never a half-built one.
+ */
+@Environment(EnvType.CLIENT)
+public final class EmojiRegistry {
+    public static final EmojiRegistry EMPTY = new EmojiRegistry(List.of());
+
+    // Open addressing with linear probing, ids can have gaps as big as the emojis of a whole disabled resource pack
+    private final int[] idSlots;
+    private final Emoji[] emojiSlots;
+    private final int slotShift;
+    // Sorted by id, for O(1) random picks
+    private final Emoji[] emojiArray;
+    private final @NotNull List<@NotNull Emoji> emojis;
+    private final @NotNull Map<@NotNull String, @NotNull Emoji> emojiByName;
+    // Emojis of each category sorted by name, resolved once per registry so the menu never has to
+    private final @NotNull Map<@NotNull String, @NotNull List<@NotNull Emoji>> emojiCategories;
+    private final @NotNull EmojiNameIndex nameIndex;
+    private final @NotNull EmojiPrefixIndex prefixIndex;
+    private final @NotNull EmojiSearchIndex searchIndex;
+
+    /**
+     * @param emojis emojis with unique names and ids
+     */
+    public EmojiRegistry(@NotNull Collection<@NotNull Emoji> emojis) {
+        // At most half full, so probe runs stay short
+        final var slotCount = Integer.highestOneBit(Math.max(1, emojis.size()) * 2 - 1) << 1;
+        this.idSlots = new int[slotCount];
+        this.emojiSlots = new Emoji[slotCount];
+        this.slotShift = Integer.numberOfLeadingZeros(slotCount) + 1;
+
+        final var emojiByName = new HashMap<@NotNull String, @NotNull Emoji>();
+        final var emojiCategories = new HashMap<@NotNull String, @NotNull List<@NotNull Emoji>>();
+
+        for (final var emoji: emojis) {
+            var slot = slotOf(emoji.getId());
+
+            while (emojiSlots[slot] != null) slot = (slot + 1) & (slotCount - 1);
+
+            idSlots[slot] = emoji.getId();
+            emojiSlots[slot] = emoji;
+            emojiByName.put(emoji.getName(), emoji);
+            emojiCategories.computeIfAbsent(emoji.getCategory(), category -> new ArrayList<>()).add(emoji);
+        }
+
+        emojiCategories.replaceAll((category, categoryEmojis) -> {
+            final var categoryArray = categoryEmojis.toArray(Emoji[]::new);
+            Arrays.sort(categoryArray, Comparator.comparing(Emoji::getName));
+
+            // Read-only view over the array, so no copy is made here or by the readers
+            return Collections.unmodifiableList(Arrays.asList(categoryArray));
+        });
+
+        this.emojiArray = emojis.stream().sorted(Comparator.comparingInt(Emoji::getId)).toArray(Emoji[]::new);
+        this.emojis = List.of(emojiArray);
+        this.emojiByName = Map.copyOf(emojiByName);
+        this.emojiCategories = Map.copyOf(emojiCategories);
+        this.nameIndex = new EmojiNameIndex(this.emojis);
+        this.prefixIndex = new EmojiPrefixIndex(this.emojis);
+        this.searchIndex = new EmojiSearchIndex(prefixIndex);
+    }
+
+    public int size() {
+        return emojis.size();
+    }
+
+    public boolean isEmpty() {
+        return emojis.isEmpty();
+    }
+
+    public @Nullable Emoji getEmoji(int id) {
+        for (var slot = slotOf(id); emojiSlots[slot] != null; slot = (slot + 1) & (emojiSlots.length - 1))
+            if (idSlots[slot] == id) return emojiSlots[slot];
+
+        return null;
+    }
+
+    public @Nullable Emoji getEmoji(@NotNull String name) {
+        return emojiByName.get(name);
+    }
+
+    public @Nullable Emoji getEmoji(@NotNull CharSequence text, int start, int end) {
+        return nameIndex.get(text, start, end);
+    }
+
+    public @Nullable Emoji getRandomEmoji() {
+        return emojiArray.length == 0 ? null : emojiArray[ThreadLocalRandom.current().nextInt(emojiArray.length)];
+    }
+
+    private int slotOf(int id) {
+        // Fibonacci hashing, the top bits of the product spread consecutive ids over the table
+        return id * 0x9E3779B9 >>> slotShift;
+    }
+
+    public boolean hasEmoji(@NotNull String name) {
+        return emojiByName.containsKey(name);
+    }
+
+    /**
+     * @return all emojis, in id order
+     */
+    public @NotNull List<@NotNull Emoji> getEmojis() {
+        return emojis;
+    }
+
+    public @NotNull EmojiPrefixIndex getPrefixIndex() {
+        return prefixIndex;
+    }
+
+    public @NotNull EmojiSearchIndex getSearchIndex() {
+        return searchIndex;
+    }
+
+    public boolean hasCategory(@NotNull String categoryKey) {
+        return emojiCategories.containsKey(categoryKey);
+    }
+
+    public @NotNull Set<@NotNull String> getCategoryKeys() {
+        return emojiCategories.keySet();
+    }
+
+    /**
+     * @return emojis of the category sorted by name, always the same instance for this registry
+     */
+    public @Nullable List<@NotNull Emoji> getCategory(@NotNull String categoryKey) {
+        return emojiCategories.get(categoryKey);
+    }
+}
@@ -0,0 +1,133 @@
+package io.github.aratakileo.emogg.emoji;
+
+import net.fabricmc.api.EnvType;
+import net.fabricmc.api.Environment;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Single-pass replacement for {@link EmojiParser#PATTERN}.
+ * <p>
+ * Works like a {@link java.util.regex.Matcher}: call {@link #find()} until it returns {@code false}
+ * and read the bounds of the current section in between. No substrings are created while scanning,
+ * the emoji name is resolved straight from the char range via {@link #getEmoji()}.
+ */
+@Environment(EnvType.CLIENT)
+public final class EmojiScanner {
+    private final CharSequence text;
+    private final int length;
+
+    private int position = 0, start = -1, end = -1;
+    private boolean escaped = false;
+
+    public EmojiScanner(@NotNull CharSequence text) {
+        this.text = text;
+        this.length = text.length();
+    }
+
+    public boolean find() {
+        var i = position;
+
+        while (i < length) {
+            final var c = text.charAt(i);
+
+            if (c == '\\') {
+                if (i + 1 < length && isColon(text.charAt(i + 1))) {
+                    final var closingColon = findClosingColon(i + 2);
+
+                    if (closingColon != -1) {
+                        setSection(i, closingColon + 1, true);
+                        return true;
+                    }
+                }
+
+                // The next char may still start an unescaped section
+                i++;
+                continue;
+            }
+
+            if (isColon(c)) {
+                final var closingColon = findClosingColon(i + 1);
+
+                if (closingColon != -1) {
+                    setSection(i, closingColon + 1, false);
+                    return true;
+                }
+
+                // Every char before the end of the name run can neither be a colon nor a backslash
+                i = skipName(i + 1);
+                continue;
+            }
+
+            i++;
+        }
+
+        position = length;
+        start = end = -1;
+        escaped = false;
+
+        return false;
+    }
+
+    private int findClosingColon(int nameStart) {
+        final var nameEnd = skipName(nameStart);
+
+        if (nameEnd == nameStart || nameEnd == length || !isColon(text.charAt(nameEnd))) return -1;
+
+        return nameEnd;
+    }
+
+    private int skipName(int from) {
+        var i = from;
+
+        while (i < length && isNameChar(text.charAt(i))) i++;
+
+        return i;
+    }
+
+    private void setSection(int start, int end, boolean escaped) {
+        this.start = start;
+        this.end = end;
+        this.escaped = escaped;
+        this.position = end;
+    }
+
+    public int start() {
+        return start;
+    }
+
+    public int end() {
+        return end;
+    }
+
+    public int nameStart() {
+        return start + (escaped ? 2 : 1);
+    }
+
+    public int nameEnd() {
+        return end - 1;
+    }
+
+    public boolean isEscaped() {
+        return escaped;
+    }
+
+    public @NotNull String getName() {
+        return text.subSequence(nameStart(), nameEnd()).toString();
+    }
+
+    public @Nullable Emoji getEmoji() {
+        return EmojiManager.getInstance().getEmoji(text, nameStart(), nameEnd());
+    }
+
+    public static boolean isColon(char c) {
+        return c == ':' || c == '：';
+    }
+
+    public static boolean isNameChar(char c) {
+        return c == '_'
+                || (c >= 'a' && c <= 'z')
+                || (c >= 'A' && c <= 'Z')
+                || (c >= '0' && c <= '9');
+    }
+}
@@ -0,0 +1,224 @@
+package io.github.aratakileo.emogg.emoji;
+
+import net.fabricmc.api.EnvType;
+import net.fabricmc.api.Environment;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Arrays;
+import java.util.stream.IntStream;
+
+/**
+ * Immutable n-gram inverted index over emoji names, built once per resource reload.
+ * Every substring of up to 3 chars (unigrams, bigrams, trigrams) has the list of names containing it.
+ * <p>
+ * Results are positions in the {@link EmojiPrefixIndex} the index was built from, in ascending order,
+ * so they come out sorted by name. Use {@link Search} to narrow results while a query is being typed.
+ */
+@Environment(EnvType.CLIENT)
+public final class EmojiSearchIndex {
+    public static final EmojiSearchIndex EMPTY = new EmojiSearchIndex(EmojiPrefixIndex.EMPTY);
+
+    // Emoji names only contain [a-z0-9_], see `EmojiUtil.normalizeEmojiObjectKey()`
+    private final static int ALPHABET_SIZE = 26 + 10 + 1,
+            MAX_GRAM_LENGTH = 3,
+            GRAM_COUNT = ALPHABET_SIZE + ALPHABET_SIZE * ALPHABET_SIZE + ALPHABET_SIZE * ALPHABET_SIZE * ALPHABET_SIZE;
+
+    private final static int[] NO_POSITIONS = new int[0];
+
+    private final EmojiPrefixIndex prefixIndex;
+
+    // Postings of gram `g` are `postings[postingOffsets[g]..postingOffsets[g + 1]]`, sorted and distinct
+    private final int[] postingOffsets;
+    private final int[] postings;
+
+    public EmojiSearchIndex(@NotNull EmojiPrefixIndex prefixIndex) {
+        this.prefixIndex = prefixIndex;
+        this.postingOffsets = new int[GRAM_COUNT + 1];
+
+        final var counts = new int[GRAM_COUNT];
+        forEachGram(prefixIndex, (gram, position) -> counts[gram]++);
+
+        for (int gram = 0; gram < GRAM_COUNT; gram++)
+            postingOffsets[gram + 1] = postingOffsets[gram] + counts[gram];
+
+        final var postings = new int[postingOffsets[GRAM_COUNT]];
+        Arrays.fill(counts, 0);
+        forEachGram(prefixIndex, (gram, position) -> postings[postingOffsets[gram] + counts[gram]++] = position);
+
+        this.postings = postings;
+    }
+
+    public @NotNull EmojiPrefixIndex getPrefixIndex() {
+        return prefixIndex;
+    }
+
+    /**
+     * @param query normalized query
+     * @return positions of the emojis whose names contain the query
+     */
+    public int[] search(@NotNull String query) {
+        if (query.isEmpty()) return IntStream.range(0, prefixIndex.size()).toArray();
+
+        // Start from the rarest gram, every other one can only remove candidates
+        final var gramLength = Math.min(query.length(), MAX_GRAM_LENGTH);
+        var rarestGram = -1;
+
+        for (int i = 0; i + gramLength <= query.length(); i++) {
+            final var gram = gramAt(query, i, gramLength);
+
+            if (gram == -1) return NO_POSITIONS;
+
+            if (rarestGram == -1 || postingCount(gram) < postingCount(rarestGram))
+                rarestGram = gram;
+        }
+
+        final var positions = Arrays.copyOfRange(postings, postingOffsets[rarestGram], postingOffsets[rarestGram + 1]);
+
+        // Short queries are grams themselves, nothing to verify
+        return query.length() <= MAX_GRAM_LENGTH ? positions : narrow(positions, query);
+    }
+
+    /**
+     * @param positions result of an earlier search for a query which the new {@code query} contains
+     * @return those of the positions whose names contain the query
+     */
+    public int[] narrow(int[] positions, @NotNull String query) {
+        var count = 0;
+        final var narrowedPositions = new int[positions.length];
+
+        for (final var position: positions)
+            if (prefixIndex.get(position).getName().contains(query))
+                narrowedPositions[count++] = position;
+
+        return count == positions.length ? narrowedPositions : Arrays.copyOf(narrowedPositions, count);
+    }
+
+    /**
+     * Typo tolerant search: finds the names sharing at least half of the trigrams of the query
+     *
+     * @return positions ordered by the number of shared trigrams, then by name
+     */
+    public int[] searchFuzzy(@NotNull String query) {
+        final var trigramCount = query.length() - MAX_GRAM_LENGTH + 1;
+
+        if (trigramCount < 1) return NO_POSITIONS;
+
+        final var sharedTrigrams = new int[prefixIndex.size()];
+
+        for (int i = 0; i < trigramCount; i++) {
+            final var trigram = gramAt(query, i, MAX_GRAM_LENGTH);
+
+            if (trigram == -1) continue;
+
+            for (int posting = postingOffsets[trigram]; posting < postingOffsets[trigram + 1]; posting++)
+                sharedTrigrams[postings[posting]]++;
+        }
+
+        final var minSharedTrigrams = (trigramCount + 1) / 2;
+
+        return IntStream.range(0, sharedTrigrams.length)
+                .filter(position -> sharedTrigrams[position] >= minSharedTrigrams)
+                .boxed()
+                .sorted((a, b) -> Integer.compare(sharedTrigrams[b], sharedTrigrams[a]))
+                .mapToInt(Integer::intValue)
+                .toArray();
+    }
+
+    private int postingCount(int trigram) {
+        return postingOffsets[trigram + 1] - postingOffsets[trigram];
+    }
+
+    /**
+     * Calls the consumer once for each distinct gram of each name, in position order
+     */
+    private static void forEachGram(@NotNull EmojiPrefixIndex prefixIndex, @NotNull GramConsumer consumer) {
+        // Last position a gram was seen at, so repeated grams of one name are only reported once
+        final var lastPositions = new int[GRAM_COUNT];
+        Arrays.fill(lastPositions, -1);
+
+        for (int position = 0; position < prefixIndex.size(); position++) {
+            final var name = prefixIndex.get(position).getName();
+
+            for (int length = 1; length <= MAX_GRAM_LENGTH; length++) {
+                for (int i = 0; i + length <= name.length(); i++) {
+                    final var gram = gramAt(name, i, length);
+
+                    if (gram == -1 || lastPositions[gram] == position) continue;
+
+                    lastPositions[gram] = position;
+                    consumer.accept(gram, position);
+                }
+            }
+        }
+    }
+
+    /**
+     * @return gram id, grams of each length take their own id range: unigrams first, then bigrams, then trigrams
+     */
+    private static int gramAt(@NotNull String text, int index, int length) {
+        var gram = 0;
+        var offset = 0;
+
+        for (int i = 0; i < length; i++) {
+            final var charIndex = charIndex(text.charAt(index + i));
+
+            if (charIndex == -1) return -1;
+
+            gram = gram * ALPHABET_SIZE + charIndex;
+        }
+
+        for (int i = 1, gramsOfLength = ALPHABET_SIZE; i < length; i++, gramsOfLength *= ALPHABET_SIZE)
+            offset += gramsOfLength;
+
+        return offset + gram;
+    }
+
+    private static int charIndex(char c) {
+        if (c >= 'a' && c <= 'z') return c - 'a';
+        if (c >= '0' && c <= '9') return 26 + c - '0';
+        if (c == '_') return 36;
+
+        return -1;
+    }
+
+    private interface GramConsumer {
+        void accept(int gram, int position);
+    }
+
+    /**
+     * Search state of one search field. Each query that extends the previous one
+     * only filters the previous results instead of searching the whole index again.
+     */
+    public static final class Search {
+        private EmojiSearchIndex index = EMPTY;
+        private String query = "";
+        private int[] positions = NO_POSITIONS;
+
+        /**
+         * @return positions in the prefix index of {@code index} of the emojis whose names contain the query
+         */
+        public int[] update(@NotNull EmojiSearchIndex index, @NotNull String query) {
+            if (index == this.index && query.equals(this.query)) return positions;
+
+            // Short queries are a single posting list copy anyway
+            if (
+                    index == this.index
+                            && query.length() > MAX_GRAM_LENGTH
+                            && !this.query.isEmpty()
+                            && query.contains(this.query)
+            )
+                positions = index.narrow(positions, query);
+            else
+                positions = index.search(query);
+
+            this.index = index;
+            this.query = query;
+
+            return positions;
+        }
+
+        public @NotNull EmojiSearchIndex getIndex() {
+            return index;
+        }
+    }
+}
@@ -0,0 +1,101 @@
+package io.github.aratakileo.emogg.emoji;
+
+import com.mojang.blaze3d.systems.RenderSystem;
+import io.github.aratakileo.emogg.EmoggConfig;
+import net.fabricmc.api.EnvType;
+import net.fabricmc.api.Environment;
+import net.minecraft.Util;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayDeque;
+import java.util.concurrent.Executor;
+
+/**
+ * Render thread work (atlas uploads and handing out the stitched glyphs) spread over frames.
+ * <p>
+ * Each frame runs queued tasks until {@link EmoggConfig#stitchBudgetMillis} is spent, at least one task though,
+ * so the queue always makes progress. Whatever is left is run on the next frames.
+ * Atlas pixels are uploaded at the start of every frame and before running a task,
+ * so tasks queued after stitching can use their glyphs, and freed space or repacked pages reach the GPU
+ * even when nothing is queued.
+ */
+@Environment(EnvType.CLIENT)
+public class EmojiStitchQueue {
+    public final static Executor EXECUTOR = EmojiStitchQueue::enqueue;
+
+    private final static ArrayDeque<Runnable> queue = new ArrayDeque<>();
+
+    // Statistics of the last frame which did any work
+    private static int lastFrameTasks = 0, lastFrameUploads = 0;
+    private static long lastFrameBytes = 0, lastFrameNanos = 0;
+    private static int currentFrameUploads = 0;
+    private static long currentFrameBytes = 0;
+
+    private static void enqueue(@NotNull Runnable task) {
+        synchronized (queue) {
+            queue.add(task);
+        }
+    }
+
+    /**
+     * Called by every atlas upload, for the statistics
+     */
+    public static void recordUpload(long bytes) {
+        currentFrameUploads++;
+        currentFrameBytes += bytes;
+    }
+
+    /**
+     * Runs queued tasks within the frame budget, called once per frame
+     */
+    public static void runFrame() {
+        RenderSystem.assertOnRenderThread();
+
+        final var startsAt = Util.getNanos();
+        final var budgetNanos = (long) (EmoggConfig.instance.stitchBudgetMillis * 1_000_000);
+        var tasks = 0;
+
+        currentFrameUploads = 0;
+        currentFrameBytes = 0;
+
+        EmojiAtlas.uploadDirty();
+
+        do {
+            final Runnable task;
+
+            synchronized (queue) {
+                task = queue.poll();
+            }
+
+            if (task == null) break;
+
+            // The task may have been queued after the upload above, its pixels have to be there before it runs
+            EmojiAtlas.uploadDirty();
+            task.run();
+            tasks++;
+        } while (Util.getNanos() - startsAt < budgetNanos);
+
+        if (tasks == 0 && currentFrameUploads == 0) return;
+
+        lastFrameTasks = tasks;
+        lastFrameUploads = currentFrameUploads;
+        lastFrameBytes = currentFrameBytes;
+        lastFrameNanos = Util.getNanos() - startsAt;
+    }
+
+    public static int getQueueDepth() {
+        synchronized (queue) {
+            return queue.size();
+        }
+    }
+
+    public static @NotNull String getDebugString() {
+        return "Emoji stitching: %s queued, last frame %s tasks, %s uploads (%s KiB) in %.2fms".formatted(
+                getQueueDepth(),
+                lastFrameTasks,
+                lastFrameUploads,
+                lastFrameBytes / 1024,
+                lastFrameNanos / 1_000_000d
+        );
+    }
+}
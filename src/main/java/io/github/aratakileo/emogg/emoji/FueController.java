@@ -51,9 +51,11 @@ public class FueController {
 
         final List<String> emojisNamesInText = Lists.newArrayList();
 
-        for (var section : EmojiParser.getEmojiSections(text)) {
-            if (!section.escaped()) {
-                final var emoji = EmojiManager.getInstance().getEmoji(section.emoji());
+        final var scanner = new EmojiScanner(text);
+
+        while (scanner.find()) {
+            if (!scanner.isEscaped()) {
+                final var emoji = scanner.getEmoji();
 
                 if (emoji == null || emojisNamesInText.contains(emoji.getName())) continue;
 
@@ -0,0 +1,123 @@
+package io.github.aratakileo.emogg.emoji;
+
+import io.github.aratakileo.emogg.util.Rect2i;
+import net.fabricmc.api.EnvType;
+import net.fabricmc.api.Environment;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.joml.Vector2i;
+
+import java.util.Collection;
+import java.util.LinkedList;
+
+/**
+ * Splits the first free rectangle the image fits into in two, trying to keep both square-like
+ */
+@Environment(EnvType.CLIENT)
+public class GuillotineEmojiAtlasPacker implements EmojiAtlasPacker {
+    private final LinkedList<Rect2i> freeSpace = new LinkedList<>();
+
+    public GuillotineEmojiAtlasPacker(int width, int height) {
+        freeSpace.add(new Rect2i(0, 0, width, height));
+    }
+
+    @Override
+    public @Nullable Vector2i allocate(int width, int height) {
+        var iter = freeSpace.listIterator();
+        while (iter.hasNext()) {
+            var rect = iter.next();
+            if (rect.getWidth() >= width && rect.getHeight() >= height) {
+                var pos = new Vector2i(rect.getX(), rect.getY());
+
+                // #########  |  #########
+                // ##### 0 #  |  #####   #
+                // #########  |  ##### 1 #
+                // #   1   #  |  # 0 #   #
+                // #########  |  #########
+                // Solution A |  Solution B
+
+                // Try to keep the rects square-like
+                double ratioA0 = (double) (rect.getWidth() - width) / (height);
+                double ratioA1 = (double) (rect.getWidth()) / (rect.getHeight() - height);
+                double ratioB0 = (double) (width) / (rect.getHeight() - height);
+                double ratioB1 = (double) (rect.getWidth() - width) / (rect.getHeight());
+                double ratioA = Math.max(
+                        ratioA0 > 1 ? ratioA0 : (1 / ratioA0),
+                        ratioA1 > 1 ? ratioA1 : (1 / ratioA1)
+                );
+                double ratioB = Math.max(
+                        ratioB0 > 1 ? ratioB0 : (1 / ratioB0),
+                        ratioB1 > 1 ? ratioB1 : (1 / ratioB1)
+                );
+
+                Rect2i toAdd;
+                // toAdd -> 0
+                // rect -> 1
+                if (ratioA < ratioB) {
+                    // Solution A
+                    toAdd = new Rect2i(
+                            rect.getX() + width,
+                            rect.getY(),
+                            rect.getWidth() - width,
+                            height
+                    );
+                    rect.setY(rect.getY() + height);
+                    rect.setHeight(rect.getHeight() - height);
+                } else {
+                    // Solution B
+                    toAdd = new Rect2i(
+                            rect.getX(),
+                            rect.getY() + height,
+                            width,
+                            rect.getHeight() - height
+                    );
+                    rect.setX(rect.getX() + width);
+                    rect.setWidth(rect.getWidth() - width);
+                }
+
+                // Keep small rectangular spaces in the front reduce fragmentation
+                iter.remove();
+                if (rect.hasArea()) freeSpace.addFirst(rect);
+                if (toAdd.hasArea()) freeSpace.addFirst(toAdd);
+
+                return pos;
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public void grow(int oldWidth, int oldHeight, int newWidth, int newHeight) {
+        if (newWidth > oldWidth) freeSpace.add(new Rect2i(oldWidth, 0, newWidth - oldWidth, newHeight));
+        if (newHeight > oldHeight) freeSpace.add(new Rect2i(0, oldHeight, oldWidth, newHeight - oldHeight));
+    }
+
+    @Override
+    public void free(int x, int y, int width, int height) {
+        var freed = new Rect2i(x, y, width, height);
+        var isMerged = true;
+
+        // Every merge may make another one possible
+        while (isMerged) {
+            isMerged = false;
+
+            final var iter = freeSpace.iterator();
+            while (iter.hasNext()) {
+                final var rect = iter.next();
+
+                if (freed.sharesEdgeWith(rect)) {
+                    iter.remove();
+                    freed = freed.union(rect);
+                    isMerged = true;
+                }
+            }
+        }
+
+        freeSpace.addFirst(freed);
+    }
+
+    @Override
+    public @NotNull Collection<@NotNull Rect2i> getFreeSpace() {
+        return freeSpace;
+    }
+}
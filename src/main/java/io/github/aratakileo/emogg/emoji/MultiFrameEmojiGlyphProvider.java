@@ -32,6 +32,13 @@ public class MultiFrameEmojiGlyphProvider implements EmojiGlyphProvider {
         return last;
     }
 
+    @Override
+    public void release() {
+        for (var frame : frames) {
+            if (frame.glyph instanceof EmojiGlyph.Atlas atlasGlyph) EmojiAtlas.free(atlasGlyph);
+        }
+    }
+
     public static class Frame {
         private final EmojiGlyph glyph;
         private final int duration;
@@ -0,0 +1,278 @@
+package io.github.aratakileo.emogg.emoji;
+
+import io.github.aratakileo.emogg.util.Rect2i;
+import net.fabricmc.api.EnvType;
+import net.fabricmc.api.Environment;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.joml.Vector2i;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.TreeMap;
+
+/**
+ * Bottom-left skyline packing. The page is filled from the top, the skyline being the lowest used row of every column.
+ * <p>
+ * The gaps left below the skyline are kept in a map sorted by their height, then width,
+ * and are tried first with a best fit lookup, so they do not have to be scanned one by one.
+ * They are also indexed by their corners, so a freed area finds the gaps it can merge with right away.
+ */
+@Environment(EnvType.CLIENT)
+public class SkylineEmojiAtlasPacker implements EmojiAtlasPacker {
+    private static final int MAX_WASTE_LOOKUPS = 16;
+
+    private int pageWidth, pageHeight;
+    // Sorted by x, covering the whole page width
+    private final ArrayList<Segment> skyline = new ArrayList<>();
+    // Free rectangles below the skyline by `sizeKey`
+    private final TreeMap<Long, LinkedHashSet<Rect2i>> wasteBySize = new TreeMap<>();
+    // The same rectangles by `positionKey` of their corners, they do not overlap, so no two share one
+    private final HashMap<Long, Rect2i> wasteByTopLeft = new HashMap<>(),
+            wasteByTopRight = new HashMap<>(),
+            wasteByBottomLeft = new HashMap<>();
+
+    public SkylineEmojiAtlasPacker(int width, int height) {
+        pageWidth = width;
+        pageHeight = height;
+        skyline.add(new Segment(0, 0, width));
+    }
+
+    @Override
+    public @Nullable Vector2i allocate(int width, int height) {
+        final var waste = takeWaste(width, height);
+
+        if (waste != null) {
+            splitWaste(waste, width, height);
+            return new Vector2i(waste.getX(), waste.getY());
+        }
+
+        return allocateOnSkyline(width, height);
+    }
+
+    @Override
+    public void grow(int oldWidth, int oldHeight, int newWidth, int newHeight) {
+        if (newWidth > oldWidth) {
+            skyline.add(new Segment(oldWidth, 0, newWidth - oldWidth));
+            mergeSegments();
+        }
+
+        pageWidth = newWidth;
+        pageHeight = newHeight;
+    }
+
+    /**
+     * Freed areas are below the skyline, so they join the gaps
+     */
+    @Override
+    public void free(int x, int y, int width, int height) {
+        var freed = new Rect2i(x, y, width, height);
+        Rect2i adjacent;
+
+        while ((adjacent = takeAdjacentWaste(freed)) != null)
+            freed = freed.union(adjacent);
+
+        addWaste(freed.getX(), freed.getY(), freed.getWidth(), freed.getHeight());
+    }
+
+    @Override
+    public @NotNull Collection<@NotNull Rect2i> getFreeSpace() {
+        final var freeSpace = new ArrayList<Rect2i>();
+
+        wasteBySize.values().forEach(freeSpace::addAll);
+
+        for (final var segment: skyline)
+            if (segment.y < pageHeight)
+                freeSpace.add(new Rect2i(segment.x, segment.y, segment.width, pageHeight - segment.y));
+
+        return freeSpace;
+    }
+
+    /**
+     * Removes and returns the free rectangle with the smallest height, then the smallest width, the area fits into
+     */
+    private @Nullable Rect2i takeWaste(int width, int height) {
+        var fromHeight = height;
+
+        for (var lookups = 0; lookups < MAX_WASTE_LOOKUPS; lookups++) {
+            final var entry = wasteBySize.ceilingEntry(sizeKey(width, fromHeight));
+
+            if (entry == null) return null;
+
+            final var rectHeight = (int) (entry.getKey() >>> 32);
+
+            // Too narrow, look for the narrowest wide enough one of this height, or taller ones after it
+            if ((int) (long) entry.getKey() < width) {
+                fromHeight = rectHeight;
+                continue;
+            }
+
+            final var rect = entry.getValue().iterator().next();
+            removeWaste(rect);
+
+            return rect;
+        }
+
+        // Only taller and taller thin gaps left, placing on the skyline is the better fit anyway
+        return null;
+    }
+
+    /**
+     * Removes and returns a free rectangle which forms a rectangle together with this one
+     */
+    private @Nullable Rect2i takeAdjacentWaste(@NotNull Rect2i rect) {
+        final var candidates = new Rect2i[] {
+                // Right, left, below and above
+                wasteByTopLeft.get(positionKey(rect.getRight(), rect.getY())),
+                wasteByTopRight.get(positionKey(rect.getX(), rect.getY())),
+                wasteByTopLeft.get(positionKey(rect.getX(), rect.getBottom())),
+                wasteByBottomLeft.get(positionKey(rect.getX(), rect.getY()))
+        };
+
+        for (final var waste : candidates) {
+            if (waste == null || !rect.sharesEdgeWith(waste)) continue;
+
+            removeWaste(waste);
+
+            return waste;
+        }
+
+        return null;
+    }
+
+    /**
+     * Gives the space of the rectangle not taken by the area back, split along the shorter leftover axis
+     */
+    private void splitWaste(@NotNull Rect2i rect, int width, int height) {
+        final var leftoverWidth = rect.getWidth() - width;
+        final var leftoverHeight = rect.getHeight() - height;
+
+        if (leftoverWidth < leftoverHeight) {
+            addWaste(rect.getX() + width, rect.getY(), leftoverWidth, height);
+            addWaste(rect.getX(), rect.getY() + height, rect.getWidth(), leftoverHeight);
+        } else {
+            addWaste(rect.getX() + width, rect.getY(), leftoverWidth, rect.getHeight());
+            addWaste(rect.getX(), rect.getY() + height, width, leftoverHeight);
+        }
+    }
+
+    private void addWaste(int x, int y, int width, int height) {
+        if (width <= 0 || height <= 0) return;
+
+        final var rect = new Rect2i(x, y, width, height);
+
+        wasteBySize.computeIfAbsent(sizeKey(width, height), key -> new LinkedHashSet<>()).add(rect);
+        wasteByTopLeft.put(positionKey(x, y), rect);
+        wasteByTopRight.put(positionKey(rect.getRight(), y), rect);
+        wasteByBottomLeft.put(positionKey(x, rect.getBottom()), rect);
+    }
+
+    private void removeWaste(@NotNull Rect2i rect) {
+        final var sizeKey = sizeKey(rect.getWidth(), rect.getHeight());
+        final var rects = wasteBySize.get(sizeKey);
+
+        rects.remove(rect);
+
+        if (rects.isEmpty()) wasteBySize.remove(sizeKey);
+
+        wasteByTopLeft.remove(positionKey(rect.getX(), rect.getY()));
+        wasteByTopRight.remove(positionKey(rect.getRight(), rect.getY()));
+        wasteByBottomLeft.remove(positionKey(rect.getX(), rect.getBottom()));
+    }
+
+    private @Nullable Vector2i allocateOnSkyline(int width, int height) {
+        int bestIndex = -1, bestY = Integer.MAX_VALUE, bestWaste = Integer.MAX_VALUE;
+
+        for (var i = 0; i < skyline.size(); i++) {
+            final var x = skyline.get(i).x;
+
+            if (x + width > pageWidth) break;
+
+            // The area rests on the highest segment below it
+            var y = 0;
+            var waste = 0;
+
+            for (var j = i; j < skyline.size() && skyline.get(j).x < x + width; j++)
+                y = Math.max(y, skyline.get(j).y);
+
+            if (y + height > pageHeight || y > bestY) continue;
+
+            for (var j = i; j < skyline.size() && skyline.get(j).x < x + width; j++) {
+                final var segment = skyline.get(j);
+                waste += (y - segment.y) * (Math.min(segment.getRight(), x + width) - segment.x);
+            }
+
+            if (y < bestY || waste < bestWaste) {
+                bestIndex = i;
+                bestY = y;
+                bestWaste = waste;
+            }
+        }
+
+        if (bestIndex == -1) return null;
+
+        final var x = skyline.get(bestIndex).x;
+        placeOnSkyline(bestIndex, x, bestY, width, height);
+
+        return new Vector2i(x, bestY);
+    }
+
+    private void placeOnSkyline(int index, int x, int y, int width, int height) {
+        final var right = x + width;
+
+        // Remember the gaps below the area, then cut the covered segments out
+        while (index < skyline.size() && skyline.get(index).x < right) {
+            final var segment = skyline.get(index);
+            final var coveredWidth = Math.min(segment.getRight(), right) - segment.x;
+
+            addWaste(segment.x, segment.y, coveredWidth, y - segment.y);
+
+            if (segment.getRight() <= right) {
+                skyline.remove(index);
+            } else {
+                segment.width -= coveredWidth;
+                segment.x = right;
+                break;
+            }
+        }
+
+        skyline.add(index, new Segment(x, y + height, width));
+        mergeSegments();
+    }
+
+    private void mergeSegments() {
+        for (var i = 0; i < skyline.size() - 1; ) {
+            final var segment = skyline.get(i);
+            final var next = skyline.get(i + 1);
+
+            if (segment.y == next.y) {
+                segment.width += next.width;
+                skyline.remove(i + 1);
+            } else i++;
+        }
+    }
+
+    private static long sizeKey(int width, int height) {
+        return ((long) height << 32) | width;
+    }
+
+    private static long positionKey(int x, int y) {
+        return ((long) x << 32) | (y & 0xffffffffL);
+    }
+
+    private static class Segment {
+        private int x, y, width;
+
+        private Segment(int x, int y, int width) {
+            this.x = x;
+            this.y = y;
+            this.width = width;
+        }
+
+        private int getRight() {
+            return x + width;
+        }
+    }
+}
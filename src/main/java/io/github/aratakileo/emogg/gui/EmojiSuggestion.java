@@ -2,6 +2,7 @@ package io.github.aratakileo.emogg.gui;
 
 import io.github.aratakileo.emogg.emoji.Emoji;
 import io.github.aratakileo.emogg.emoji.EmojiGlyph;
+import io.github.aratakileo.emogg.emoji.EmojiLoadingScheduler;
 import io.github.aratakileo.emogg.util.EmojiUtil;
 import io.github.aratakileo.suggestionsapi.suggestion.Suggestion;
 import io.github.aratakileo.suggestionsapi.suggestion.SuggestionRenderer;
@@ -27,6 +28,15 @@ public class EmojiSuggestion implements Suggestion, SuggestionRenderer {
         return text;
     }
 
+    /**
+     * Suggestions come from {@link EmojiSuggestions#get(String)}, which already matched them against the expression,
+     * also those which only contain it somewhere in their names
+     */
+    @Override
+    public boolean shouldShowFor(@NotNull String currentExpression) {
+        return true;
+    }
+
     @Override
     public int getWidth() {
         return (int) (EmojiGlyph.HEIGHT + Minecraft.getInstance().font.width(emoji.getCode()) + 6);
@@ -34,7 +44,7 @@ public class EmojiSuggestion implements Suggestion, SuggestionRenderer {
 
     @Override
     public int renderContent(@NotNull GuiGraphics guiGraphics, @NotNull Font font, int x, int y, int color) {
-        EmojiUtil.render(emoji.getGlyph(), guiGraphics, x + 1, y, (int) EmojiGlyph.HEIGHT, false);
+        EmojiUtil.render(emoji.getGlyph(EmojiLoadingScheduler.Priority.MENU), guiGraphics, x + 1, y, (int) EmojiGlyph.HEIGHT, false);
 
         return guiGraphics.drawString(
                 font,
@@ -0,0 +1,109 @@
+package io.github.aratakileo.emogg.gui;
+
+import io.github.aratakileo.emogg.EmoggConfig;
+import io.github.aratakileo.emogg.emoji.EmojiManager;
+import io.github.aratakileo.emogg.emoji.EmojiPrefixIndex;
+import io.github.aratakileo.emogg.emoji.EmojiScanner;
+import io.github.aratakileo.emogg.emoji.EmojiSearchIndex;
+import net.fabricmc.api.EnvType;
+import net.fabricmc.api.Environment;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+
+/**
+ * Emoji suggestions for the typed {@code :prefix}, frequently used emojis first, then the rest by name,
+ * then the emojis which only contain the prefix somewhere in their names, e.g. {@code :light} also suggests
+ * {@code :rotating_light:}.
+ * <p>
+ * Only the top {@link #MAX_SUGGESTIONS} matches are returned. Suggestion objects are created once per emoji
+ * and colon kind, and reused until the emoji list changes.
+ */
+@Environment(EnvType.CLIENT)
+public final class EmojiSuggestions {
+    private final static int MAX_SUGGESTIONS = 64;
+
+    private final static EmojiSearchIndex.Search search = new EmojiSearchIndex.Search();
+
+    // Index the cached suggestions belong to, they are indexed the same way
+    private static EmojiPrefixIndex prefixIndex = EmojiPrefixIndex.EMPTY;
+    private static EmojiSuggestion[] suggestions = new EmojiSuggestion[0],
+            fullWidthSuggestions = new EmojiSuggestion[0];
+
+    private EmojiSuggestions() {}
+
+    /**
+     * @param currentExpression the typed expression, starting with a colon and maybe ending with one
+     */
+    public static synchronized @NotNull List<@NotNull EmojiSuggestion> get(@NotNull String currentExpression) {
+        final var registry = EmojiManager.getInstance().getRegistry();
+        final var prefixIndex = registry.getPrefixIndex();
+
+        if (prefixIndex != EmojiSuggestions.prefixIndex) {
+            EmojiSuggestions.prefixIndex = prefixIndex;
+            suggestions = new EmojiSuggestion[prefixIndex.size()];
+            fullWidthSuggestions = new EmojiSuggestion[prefixIndex.size()];
+        }
+
+        final var isFullWidth = currentExpression.startsWith("：");
+        var prefixEnd = currentExpression.length();
+
+        if (prefixEnd > 1 && EmojiScanner.isColon(currentExpression.charAt(prefixEnd - 1))) prefixEnd--;
+
+        final var prefix = currentExpression.substring(1, prefixEnd).toLowerCase();
+        final var fromIndex = prefixIndex.fromIndex(prefix);
+        final var toIndex = prefixIndex.toIndex(prefix);
+        final var result = new ArrayList<EmojiSuggestion>(Math.min(MAX_SUGGESTIONS, toIndex - fromIndex));
+
+        // Frequently used emojis are already sorted by use points
+        final var frequentlyUsedIndexes = new HashSet<Integer>();
+
+        for (final var emojiStatistic: EmoggConfig.instance.frequentlyUsedEmojis) {
+            if (result.size() == MAX_SUGGESTIONS) return result;
+
+            if (!emojiStatistic.emojiName.startsWith(prefix)) continue;
+
+            final var index = prefixIndex.indexOf(emojiStatistic.emojiName);
+
+            if (index == -1 || !frequentlyUsedIndexes.add(index)) continue;
+
+            result.add(getSuggestion(index, isFullWidth));
+        }
+
+        for (int index = fromIndex; index < toIndex && result.size() < MAX_SUGGESTIONS; index++) {
+            if (frequentlyUsedIndexes.contains(index)) continue;
+
+            result.add(getSuggestion(index, isFullWidth));
+        }
+
+        if (prefix.isEmpty()) return result;
+
+        // Search positions are prefix index positions as well
+        for (final var index: search.update(registry.getSearchIndex(), prefix)) {
+            if (result.size() == MAX_SUGGESTIONS) break;
+
+            if ((index >= fromIndex && index < toIndex) || frequentlyUsedIndexes.contains(index)) continue;
+
+            result.add(getSuggestion(index, isFullWidth));
+        }
+
+        return result;
+    }
+
+    private static @NotNull EmojiSuggestion getSuggestion(int index, boolean isFullWidth) {
+        final var suggestions = isFullWidth ? fullWidthSuggestions : EmojiSuggestions.suggestions;
+
+        if (suggestions[index] == null) {
+            final var emoji = prefixIndex.get(index);
+
+            suggestions[index] = new EmojiSuggestion(
+                    emoji,
+                    (isFullWidth ? "：%s：" : ":%s:").formatted(emoji.getName())
+            );
+        }
+
+        return suggestions[index];
+    }
+}
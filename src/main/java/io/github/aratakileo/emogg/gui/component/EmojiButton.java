@@ -2,6 +2,7 @@ package io.github.aratakileo.emogg.gui.component;
 
 import io.github.aratakileo.emogg.emoji.EmojiManager;
 import io.github.aratakileo.emogg.emoji.Emoji;
+import io.github.aratakileo.emogg.emoji.EmojiLoadingScheduler;
 import io.github.aratakileo.emogg.util.EmojiUtil;
 import net.fabricmc.api.EnvType;
 import net.fabricmc.api.Environment;
@@ -61,7 +62,7 @@ public class EmojiButton extends Button {
         }
 
         EmojiUtil.render(
-                displayableEmoji.getGlyph(),
+                displayableEmoji.getGlyph(EmojiLoadingScheduler.Priority.MENU),
                 guiGraphics,
                 renderX,
                 renderY,
@@ -77,7 +78,8 @@ public class EmojiButton extends Button {
                 .getRandomEmoji()
                 .ifPresent(emoji -> displayableEmoji = emoji);
 
-        if (displayableEmoji == null || prevDisplayableEmoji == null) return;
+        if (displayableEmoji == null || prevDisplayableEmoji == null || EmojiManager.getInstance().getRegistry().size() < 2)
+            return;
 
         while (displayableEmoji.getName().equals(prevDisplayableEmoji.getName()))
             EmojiManager.getInstance()
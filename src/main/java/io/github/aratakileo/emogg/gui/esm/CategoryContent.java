@@ -28,6 +28,17 @@ public class CategoryContent {
         refreshEmojis();
     }
 
+    /**
+     * Category with a fixed emoji list, which is not looked up by its name
+     */
+    public CategoryContent(@NotNull String name, @NotNull List<Emoji> emojis) {
+        this.name = name;
+        this.isExpanded = true;
+        this.emojis = emojis;
+
+        updateLineCount();
+    }
+
     public boolean isEmpty() {
         return emojis == null || emojis.isEmpty();
     }
@@ -108,6 +119,11 @@ public class CategoryContent {
 
     public void refreshEmojis() {
         emojis = EmojiManager.getInstance().getEmojisByCategory(name);
+
+        updateLineCount();
+    }
+
+    private void updateLineCount() {
         lineCount = (int) (
                 Math.ceil((double)emojis.size() / (double) EmojiSelectionMenu.MAX_NUMBER_OF_EMOJIS_IN_LINE) + 1
         );
@@ -7,6 +7,7 @@ import io.github.aratakileo.emogg.gui.component.AbstractWidget;
 import io.github.aratakileo.emogg.gui.component.VerticalScrollbar;
 import io.github.aratakileo.emogg.gui.screen.SettingsScreen;
 import io.github.aratakileo.emogg.util.EmojiUtil;
+import io.github.aratakileo.emogg.util.KeyboardUtil;
 import io.github.aratakileo.emogg.util.Rect2i;
 import io.github.aratakileo.emogg.util.GuiUtil;
 import net.fabricmc.api.EnvType;
@@ -21,6 +22,7 @@ import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
 import java.util.ArrayList;
+import java.util.List;
 import java.util.Objects;
 import java.util.function.Consumer;
 
@@ -30,6 +32,8 @@ public class EmojiSelectionMenu extends AbstractWidget {
             MAX_NUMBER_OF_LINES_ON_PAGE = 8,
             SCROLLBAR_WIDTH = 5;
 
+    public final static String CATEGORY_SEARCH_RESULTS = "$search_results";
+
     private final static ResourceLocation SETTINGS_ICON = new ResourceLocation(
             Emogg.NAMESPACE_OR_ID,
             "gui/icon/settings_icon.png"
@@ -41,10 +45,14 @@ public class EmojiSelectionMenu extends AbstractWidget {
     private final float emojiSize, contentWidth;
     private final Rect2i settingsButtonRect, plusButtonRect;
     private final ArrayList<CategoryContent> categoryContents = new ArrayList<>();
+    private final EmojiSearchIndex.Search search = new EmojiSearchIndex.Search();
     private final boolean isSinglePage;
 
     private @Nullable Consumer<Emoji> onEmojiSelected = null;
     private @Nullable EmojiOrCategoryContent hoveredEmojiOrCategoryContent = null;
+    private @NotNull String searchQuery = "";
+    // Either `categoryContents` or the search results
+    private @NotNull List<CategoryContent> visibleCategoryContents = categoryContents;
 
     public final VerticalScrollbar verticalScrollbar;
 
@@ -131,7 +139,7 @@ public class EmojiSelectionMenu extends AbstractWidget {
 
         renderString(
                 guiGraphics,
-                StringUtils.capitalize(Emogg.NAMESPACE_OR_ID),
+                searchQuery.isEmpty() ? StringUtils.capitalize(Emogg.NAMESPACE_OR_ID) : searchQuery + '_',
                 2,
                 2,
                 0xffffff,
@@ -188,7 +196,7 @@ public class EmojiSelectionMenu extends AbstractWidget {
         var renderLineIndex = 0;
         var iline = 0;
 
-        for (final var categoryContent: categoryContents) {
+        for (final var categoryContent: visibleCategoryContents) {
             if (
                     iline < verticalScrollbar.getProgress()
                             && iline + categoryContent.getRenderLineCount() < verticalScrollbar.getProgress()
@@ -287,7 +295,14 @@ public class EmojiSelectionMenu extends AbstractWidget {
                         );
                     }
 
-                    EmojiUtil.render(emoji.getGlyph(), guiGraphics, emojiX + 1, emojiY + 1, (int) (emojiSize - 2), false);
+                    EmojiUtil.render(
+                            emoji.getGlyph(EmojiLoadingScheduler.Priority.MENU),
+                            guiGraphics,
+                            emojiX + 1,
+                            emojiY + 1,
+                            (int) (emojiSize - 2),
+                            false
+                    );
 
                     if (EmoggConfig.instance.enableDebugMode && icolumn == 0) {
                         final var debugString = String.valueOf(iline);
@@ -336,6 +351,72 @@ public class EmojiSelectionMenu extends AbstractWidget {
         return true;
     }
 
+    @Override
+    public boolean keyPressed(int keyCode, int scanCode, int modifiers) {
+        if (visible && keyCode == KeyboardUtil.K_BACKSPACE && !searchQuery.isEmpty()) {
+            setSearchQuery(searchQuery.substring(0, searchQuery.length() - 1));
+            return true;
+        }
+
+        return super.keyPressed(keyCode, scanCode, modifiers);
+    }
+
+    /**
+     * Typing while the menu is hovered searches emojis by name
+     */
+    @Override
+    public boolean charTyped(char chr, int modifiers) {
+        if (!visible) return false;
+
+        final var normalizedChr = Character.toLowerCase(chr == '-' ? '_' : chr);
+
+        if (
+                (normalizedChr < 'a' || normalizedChr > 'z')
+                        && (normalizedChr < '0' || normalizedChr > '9')
+                        && normalizedChr != '_'
+        ) return false;
+
+        setSearchQuery(searchQuery + normalizedChr);
+
+        return true;
+    }
+
+    public void setSearchQuery(@NotNull String searchQuery) {
+        if (searchQuery.equals(this.searchQuery)) return;
+
+        final var oldTotalLineCount = getTotalRenderLineCount();
+
+        this.searchQuery = searchQuery;
+
+        if (searchQuery.isEmpty())
+            visibleCategoryContents = categoryContents;
+        else {
+            final var searchIndex = EmojiManager.getInstance().getRegistry().getSearchIndex();
+            var positions = search.update(searchIndex, searchQuery);
+
+            if (positions.length == 0) positions = searchIndex.searchFuzzy(searchQuery);
+
+            final var emojis = new ArrayList<Emoji>(positions.length);
+
+            for (final var position: positions)
+                emojis.add(searchIndex.getPrefixIndex().get(position));
+
+            visibleCategoryContents = List.of(new CategoryContent(CATEGORY_SEARCH_RESULTS, emojis));
+        }
+
+        verticalScrollbar.setProgress(0);
+        verticalScrollbar.increaseMaxProgress(getTotalRenderLineCount() - oldTotalLineCount);
+    }
+
+    private int getTotalRenderLineCount() {
+        var totalLineCount = 0;
+
+        for (final var categoryContent: visibleCategoryContents)
+            totalLineCount += categoryContent.getRenderLineCount();
+
+        return totalLineCount;
+    }
+
     @Override
     public boolean mouseDragged(double mouseX, double mouseY, int button, double deltaX, double deltaY) {
         return verticalScrollbar.mouseDragged(mouseX, mouseY, button, deltaX, deltaY);
@@ -390,6 +471,9 @@ public class EmojiSelectionMenu extends AbstractWidget {
     }
 
     public void refreshFrequentlyUsedEmojis() {
+        // Line counts below are for the categories, not for the search results
+        setSearchQuery("");
+
         final var frequentlyUsedEmojis = FueController.getEmojis();
 
         verticalScrollbar.setProgress(0);
@@ -0,0 +1,25 @@
+package io.github.aratakileo.emogg.mixin;
+
+import net.minecraft.network.chat.MutableComponent;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Duck interface implemented on {@link MutableComponent} by
+ * {@link io.github.aratakileo.emogg.mixin.mixins.parsing.MutableComponentMixin}
+ */
+public interface ParsedComponent {
+    /**
+     * @return the pre-parse version of this component, or {@code null} if it has not been parsed
+     */
+    @Nullable MutableComponent emogg$getOriginal();
+
+    void emogg$setOriginal(@Nullable MutableComponent original);
+
+    /**
+     * Components are parsed lazily, on their first render,
+     * this tells whether it has already happened (or is not needed) for this component
+     */
+    boolean emogg$isParseChecked();
+
+    void emogg$markParseChecked();
+}
@@ -0,0 +1,47 @@
+package io.github.aratakileo.emogg.mixin.mixins.network;
+
+import io.github.aratakileo.emogg.emoji.EmojiParsePlan;
+import io.github.aratakileo.emogg.emoji.EmojiParser;
+import net.minecraft.client.multiplayer.ClientPacketListener;
+import net.minecraft.network.protocol.game.ClientboundDisguisedChatPacket;
+import net.minecraft.network.protocol.game.ClientboundPlayerChatPacket;
+import net.minecraft.network.protocol.game.ClientboundSystemChatPacket;
+import org.spongepowered.asm.mixin.Mixin;
+import org.spongepowered.asm.mixin.injection.At;
+import org.spongepowered.asm.mixin.injection.Inject;
+import org.spongepowered.asm.mixin.injection.callback.CallbackInfo;
+
+/**
+ * Chat packets are first handled on the network thread, before being rescheduled to the render thread,
+ * so their components get parsed there and chat floods do not take parsing time from frames.
+ */
+@Mixin(ClientPacketListener.class)
+public class ClientPacketListenerMixin {
+    @Inject(method = "handleSystemChat", at = @At("HEAD"))
+    private void preParseSystemChat(ClientboundSystemChatPacket packet, CallbackInfo ci) {
+        EmojiParser.parseTree(packet.content());
+    }
+
+    @Inject(method = "handleDisguisedChat", at = @At("HEAD"))
+    private void preParseDisguisedChat(ClientboundDisguisedChatPacket packet, CallbackInfo ci) {
+        EmojiParser.parseTree(packet.message());
+        EmojiParser.parseTree(packet.chatType().name());
+
+        if (packet.chatType().targetName() != null)
+            EmojiParser.parseTree(packet.chatType().targetName());
+    }
+
+    @Inject(method = "handlePlayerChat", at = @At("HEAD"))
+    private void preParsePlayerChat(ClientboundPlayerChatPacket packet, CallbackInfo ci) {
+        if (packet.unsignedContent() != null)
+            EmojiParser.parseTree(packet.unsignedContent());
+        // The component of the signed content is only created on the render thread, when the chat type decorates it,
+        // so only its parse plan can be prepared here
+        else EmojiParsePlan.of(packet.body().content());
+
+        EmojiParser.parseTree(packet.chatType().name());
+
+        if (packet.chatType().targetName() != null)
+            EmojiParser.parseTree(packet.chatType().targetName());
+    }
+}
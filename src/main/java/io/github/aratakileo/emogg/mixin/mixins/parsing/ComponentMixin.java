@@ -3,6 +3,7 @@ package io.github.aratakileo.emogg.mixin.mixins.parsing;
 import io.github.aratakileo.emogg.emoji.EmojiParser;
 import net.minecraft.network.chat.Component;
 import net.minecraft.network.chat.FormattedText;
+import net.minecraft.network.chat.MutableComponent;
 import net.minecraft.network.chat.Style;
 import org.spongepowered.asm.mixin.Mixin;
 import org.spongepowered.asm.mixin.injection.At;
@@ -17,7 +18,7 @@ public interface ComponentMixin {
             at = @At("HEAD"),
             cancellable = true)
     private void preGetString(CallbackInfoReturnable<String> cir) {
-        EmojiParser.isInGetString = true;
+        EmojiParser.setInGetString(true);
         EmojiParser.mixinApplyUsingOriginal(
                 (Component) this,
                 cir,
@@ -30,7 +31,7 @@ public interface ComponentMixin {
             at = @At("HEAD"),
             cancellable = true)
     private void preGetString(int i, CallbackInfoReturnable<String> cir) {
-        EmojiParser.isInGetString = true;
+        EmojiParser.setInGetString(true);
         EmojiParser.mixinApplyUsingOriginal(
                 (Component) this,
                 cir,
@@ -42,20 +43,20 @@ public interface ComponentMixin {
     @Inject(method = "getString()Ljava/lang/String;",
             at = @At("RETURN"))
     private void postGetString(CallbackInfoReturnable<String> cir) {
-        EmojiParser.isInGetString = false;
+        EmojiParser.setInGetString(false);
     }
 
     @Inject(method = "getString(I)Ljava/lang/String;",
             at = @At("RETURN"))
     private void postGetString(int i, CallbackInfoReturnable<String> cir) {
-        EmojiParser.isInGetString = false;
+        EmojiParser.setInGetString(false);
     }
 
     @Inject(method = "visit(Lnet/minecraft/network/chat/FormattedText$ContentConsumer;)Ljava/util/Optional;",
             at = @At("HEAD"),
             cancellable = true)
     private <T> void preVisit(FormattedText.ContentConsumer<T> contentConsumer, CallbackInfoReturnable<Optional<T>> cir) {
-        if (!EmojiParser.isInGetString) return;
+        if (!EmojiParser.isInGetString()) return;
         EmojiParser.mixinApplyUsingOriginal(
                 (Component) this, cir,
                 c -> c.visit(contentConsumer),
@@ -67,7 +68,13 @@ public interface ComponentMixin {
             at = @At("HEAD"),
             cancellable = true)
     private <T> void preVisit(FormattedText.StyledContentConsumer<T> styledContentConsumer, Style style, CallbackInfoReturnable<Optional<T>> cir) {
-        if (!EmojiParser.isInGetString) return;
+        if (!EmojiParser.isInGetString()) {
+            // Styled visits are how text gets measured, split and rendered, so this is the first render of the component
+            if (EmojiParser.isOnLogicalClient() && (Object) this instanceof MutableComponent mutableComponent)
+                EmojiParser.parse(mutableComponent);
+
+            return;
+        }
         EmojiParser.mixinApplyUsingOriginal(
                 (Component) this, cir,
                 c -> c.visit(styledContentConsumer, style),
@@ -1,25 +1,40 @@
 package io.github.aratakileo.emogg.mixin.mixins.parsing;
 
 import io.github.aratakileo.emogg.emoji.EmojiParser;
-import net.minecraft.network.chat.Component;
-import net.minecraft.network.chat.ComponentContents;
+import io.github.aratakileo.emogg.mixin.ParsedComponent;
 import net.minecraft.network.chat.MutableComponent;
-import net.minecraft.network.chat.Style;
 import net.minecraft.util.FormattedCharSequence;
 import org.spongepowered.asm.mixin.Mixin;
+import org.spongepowered.asm.mixin.Unique;
 import org.spongepowered.asm.mixin.injection.At;
 import org.spongepowered.asm.mixin.injection.Inject;
-import org.spongepowered.asm.mixin.injection.callback.CallbackInfo;
 import org.spongepowered.asm.mixin.injection.callback.CallbackInfoReturnable;
 
-import java.util.List;
-
 @Mixin(MutableComponent.class)
-public abstract class MutableComponentMixin {
-    @Inject(method = "<init>", at = @At("TAIL"))
-    private void init(ComponentContents componentContents, List<Component> list, Style style, CallbackInfo ci) {
-        if (!EmojiParser.isOnLogicalClient()) return;
-        EmojiParser.parse((MutableComponent) (Object) this);
+public abstract class MutableComponentMixin implements ParsedComponent {
+    @Unique
+    private MutableComponent emogg$original;
+    @Unique
+    private volatile boolean emogg$parseChecked;
+
+    @Override
+    public MutableComponent emogg$getOriginal() {
+        return emogg$original;
+    }
+
+    @Override
+    public void emogg$setOriginal(MutableComponent original) {
+        emogg$original = original;
+    }
+
+    @Override
+    public boolean emogg$isParseChecked() {
+        return emogg$parseChecked;
+    }
+
+    @Override
+    public void emogg$markParseChecked() {
+        emogg$parseChecked = true;
     }
 
     @Inject(method = "getVisualOrderText", at = @At("HEAD"))
@@ -1,6 +1,8 @@
 package io.github.aratakileo.emogg.mixin.mixins.rendering;
 
 import io.github.aratakileo.emogg.EmoggRenderTypes;
+import io.github.aratakileo.emogg.emoji.EmojiEviction;
+import io.github.aratakileo.emogg.emoji.EmojiStitchQueue;
 import net.minecraft.client.renderer.GameRenderer;
 import net.minecraft.server.packs.resources.ResourceProvider;
 import org.spongepowered.asm.mixin.Mixin;
@@ -22,4 +24,10 @@ public abstract class GameRendererMixin {
     void loadCustomShaders(ResourceProvider resourceProvider, CallbackInfo ci, List list, List list2) {
         EmoggRenderTypes.Shaders.loadShaders(resourceProvider, list2);
     }
+
+    @Inject(method = "render", at = @At("HEAD"))
+    void runEmojiFrameTasks(float tickDelta, long nanoTime, boolean renderLevel, CallbackInfo ci) {
+        EmojiStitchQueue.runFrame();
+        EmojiEviction.runFrame();
+    }
 }
@@ -0,0 +1,132 @@
+package io.github.aratakileo.emogg.util;
+
+import com.mojang.blaze3d.platform.NativeImage;
+import net.fabricmc.api.EnvType;
+import net.fabricmc.api.Environment;
+import org.jetbrains.annotations.NotNull;
+
+@Environment(EnvType.CLIENT)
+public final class ImageUtil {
+    /**
+     * Scales the image down, keeping the aspect ratio, so neither side is bigger than {@code maxResolution}.
+     * <p>
+     * Every target pixel is the average of the source pixels it covers, weighted by how much of them it covers
+     * (box filtering), with alpha premultiplied so transparent pixels do not darken the edges.
+     *
+     * @return a new image, or the same one if it is small enough already or {@code maxResolution} is not positive
+     */
+    public static @NotNull NativeImage downscale(@NotNull NativeImage image, int maxResolution) {
+        final int width = image.getWidth(), height = image.getHeight();
+
+        if (maxResolution <= 0 || width <= maxResolution && height <= maxResolution) return image;
+
+        final var scale = (double) maxResolution / Math.max(width, height);
+        final var targetWidth = Math.max(1, (int) Math.round(width * scale));
+        final var targetHeight = Math.max(1, (int) Math.round(height * scale));
+
+        // Premultiplied channels, rows are scaled one at a time, so only the narrow result of that is kept whole
+        final var row = new float[width * 4];
+        final var horizontal = new float[targetWidth * height * 4];
+
+        for (var y = 0; y < height; y++) {
+            for (var x = 0; x < width; x++) {
+                final var color = image.getPixelRGBA(x, y);
+                final var alpha = (color >>> 24) / 255f;
+
+                row[x * 4] = (color & 0xff) * alpha;
+                row[x * 4 + 1] = (color >> 8 & 0xff) * alpha;
+                row[x * 4 + 2] = (color >> 16 & 0xff) * alpha;
+                row[x * 4 + 3] = alpha;
+            }
+
+            boxFilter(row, 0, 4, width, horizontal, y * targetWidth * 4, 4, targetWidth);
+        }
+
+        final var result = new float[targetWidth * targetHeight * 4];
+
+        for (var x = 0; x < targetWidth; x++)
+            boxFilter(horizontal, x * 4, targetWidth * 4, height, result, x * 4, targetWidth * 4, targetHeight);
+
+        final var downscaled = new NativeImage(NativeImage.Format.RGBA, targetWidth, targetHeight, false);
+
+        for (var y = 0; y < targetHeight; y++)
+            for (var x = 0; x < targetWidth; x++) {
+                final var i = (y * targetWidth + x) * 4;
+                final var alpha = result[i + 3];
+
+                if (alpha <= 0) {
+                    downscaled.setPixelRGBA(x, y, 0);
+                    continue;
+                }
+
+                downscaled.setPixelRGBA(
+                        x, y,
+                        toChannel(alpha) << 24
+                                | toChannel(result[i + 2] / alpha / 255f) << 16
+                                | toChannel(result[i + 1] / alpha / 255f) << 8
+                                | toChannel(result[i] / alpha / 255f)
+                );
+            }
+
+        return downscaled;
+    }
+
+    /**
+     * Averages four colors with premultiplied alpha, used for building mips
+     */
+    public static int averageColor(int color0, int color1, int color2, int color3) {
+        final var alpha = (color0 >>> 24) + (color1 >>> 24) + (color2 >>> 24) + (color3 >>> 24);
+
+        if (alpha == 0) return 0;
+
+        var result = (alpha + 2) / 4 << 24;
+
+        for (var shift = 0; shift < 24; shift += 8) {
+            final var channel = (color0 >> shift & 0xff) * (color0 >>> 24)
+                    + (color1 >> shift & 0xff) * (color1 >>> 24)
+                    + (color2 >> shift & 0xff) * (color2 >>> 24)
+                    + (color3 >> shift & 0xff) * (color3 >>> 24);
+
+            result |= Math.min(255, (channel + alpha / 2) / alpha) << shift;
+        }
+
+        return result;
+    }
+
+    /**
+     * Resamples one row or column of 4 channel pixels from {@code sourceLength} to {@code targetLength} pixels
+     */
+    private static void boxFilter(
+            float @NotNull [] source, int sourceOffset, int sourceStride, int sourceLength,
+            float @NotNull [] target, int targetOffset, int targetStride, int targetLength
+    ) {
+        final var step = (double) sourceLength / targetLength;
+
+        for (var t = 0; t < targetLength; t++) {
+            final var start = t * step;
+            final var end = start + step;
+            float r = 0, g = 0, b = 0, a = 0;
+
+            for (var s = (int) start; s < end && s < sourceLength; s++) {
+                final var weight = (float) ((Math.min(end, s + 1) - Math.max(start, s)) / step);
+                final var i = sourceOffset + s * sourceStride;
+
+                r += source[i] * weight;
+                g += source[i + 1] * weight;
+                b += source[i + 2] * weight;
+                a += source[i + 3] * weight;
+            }
+
+            final var i = targetOffset + t * targetStride;
+
+            target[i] = r;
+            target[i + 1] = g;
+            target[i + 2] = b;
+            target[i + 3] = a;
+        }
+    }
+
+    private static int toChannel(float value) {
+        return Math.max(0, Math.min(255, Math.round(value * 255)));
+    }
+}
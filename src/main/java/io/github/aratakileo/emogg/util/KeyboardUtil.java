@@ -5,6 +5,7 @@ public final class KeyboardUtil {
             K_ESC = 256,
             K_ENTER = 257,
             K_TAB = 258,
+            K_BACKSPACE = 259,
             K_DOWN = 264,
             K_UP = 265,
             K_CTRL = 341,
@@ -136,6 +136,31 @@ public class Rect2i extends net.minecraft.client.renderer.Rect2i {
         return getWidth() > 0 && getHeight() > 0;
     }
 
+    /**
+     * @return {@code true} if both rects touch along a whole edge, so together they form a rect
+     */
+    public boolean sharesEdgeWith(@NotNull Rect2i other) {
+        if (getY() == other.getY() && getHeight() == other.getHeight())
+            return getRight() == other.getX() || other.getRight() == getX();
+
+        if (getX() == other.getX() && getWidth() == other.getWidth())
+            return getBottom() == other.getY() || other.getBottom() == getY();
+
+        return false;
+    }
+
+    public @NotNull Rect2i union(@NotNull Rect2i other) {
+        final var left = Math.min(getX(), other.getX());
+        final var top = Math.min(getY(), other.getY());
+
+        return new Rect2i(
+                left,
+                top,
+                Math.max(getRight(), other.getRight()) - left,
+                Math.max(getBottom(), other.getBottom()) - top
+        );
+    }
+
     @Override
     public String toString() {
         return "Rect2i{%d, %d, %d, %d}".formatted(getX(), getY(), getWidth(), getHeight());
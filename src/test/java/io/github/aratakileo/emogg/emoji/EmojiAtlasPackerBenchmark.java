@@ -0,0 +1,225 @@
+package io.github.aratakileo.emogg.emoji;
+
+import io.github.aratakileo.emogg.util.Rect2i;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Stream;
+
+/**
+ * Skyline against guillotine packing, on the image sizes of the bundled twemogg pack:
+ * stitching the whole pack the way atlas pages grow, and loading and evicting emojis on a full page
+ */
+@Tag("benchmark")
+class EmojiAtlasPackerBenchmark {
+    private final static Path PACK = Path.of("src/main/resources/resourcepacks/twemogg/assets/emogg/emoji");
+
+    // As in EmojiAtlas.EmojiAtlasTexture, with the default maxEmojiResolution and texture size limit
+    private final static int INITIAL_SIZE = 256,
+            MAX_SIZE = 2048,
+            ALIGNMENT = 4,
+            PADDING = 4,
+            MAX_RESOLUTION = 64;
+
+    private final static int ROUNDS = 10, CHURN_STEPS = 200_000;
+    private final static double CHURN_USAGE = 0.8;
+
+    @Test
+    void stitchingTheWholePack() throws IOException {
+        final var sizes = packSizes();
+
+        for (var round = 0; round < ROUNDS; round++)
+            for (final var packerName: List.of("skyline", "guillotine")) {
+                // Emojis are loaded in the order they are first rendered
+                final var order = new ArrayList<>(sizes);
+                Collections.shuffle(order, new Random(round));
+
+                final var pages = new ArrayList<Page>();
+                pages.add(new Page(packerName));
+
+                final var startsAt = System.nanoTime();
+
+                for (final var size: order) {
+                    var placed = false;
+
+                    for (final var page: pages)
+                        if (page.stitch(size[0], size[1]) != null) {
+                            placed = true;
+                            break;
+                        }
+
+                    if (placed) continue;
+
+                    final var page = new Page(packerName);
+                    pages.add(page);
+                    page.stitch(size[0], size[1]);
+                }
+
+                final var time = System.nanoTime() - startsAt;
+
+                // The first rounds warm up the JIT
+                if (round < ROUNDS / 2) continue;
+
+                final var usedArea = pages.stream().mapToLong(page -> page.usedArea).sum();
+                final var pageArea = pages.stream().mapToLong(page -> (long) page.width * page.height).sum();
+
+                System.out.printf(
+                        "%s, %s images: %s page(s) (last %sx%s), %.1f%% of the page area used, %.2f us per image%n",
+                        packerName,
+                        order.size(),
+                        pages.size(),
+                        pages.get(pages.size() - 1).width,
+                        pages.get(pages.size() - 1).height,
+                        usedArea * 100d / pageArea,
+                        time / 1e3 / order.size()
+                );
+            }
+    }
+
+    @Test
+    void loadingAndEvictingOnAFullPage() throws IOException {
+        final var sizes = packSizes();
+
+        for (var round = 0; round < ROUNDS; round++)
+            for (final var packerName: List.of("skyline", "guillotine")) {
+                final var random = new Random(round);
+                final var page = new Page(packerName);
+                final var cells = new ArrayList<Rect2i>();
+
+                // Fill the page until it has to be given up
+                while (true) {
+                    final var size = sizes.get(random.nextInt(sizes.size()));
+                    final var cell = page.stitch(size[0], size[1]);
+
+                    if (cell == null) break;
+
+                    cells.add(cell);
+                }
+
+                final var fullArea = page.usedArea;
+                final var pageArea = (double) page.width * page.height;
+                var loads = 0;
+                var failedLoads = 0;
+
+                final var startsAt = System.nanoTime();
+
+                // Keep the page at CHURN_USAGE by evicting random emojis and loading others, as the atlas memory budget does
+                for (var step = 0; step < CHURN_STEPS; step++) {
+                    if (page.usedArea >= pageArea * CHURN_USAGE) {
+                        final var index = random.nextInt(cells.size());
+
+                        page.free(cells.get(index));
+                        cells.set(index, cells.get(cells.size() - 1));
+                        cells.remove(cells.size() - 1);
+
+                        continue;
+                    }
+
+                    final var size = sizes.get(random.nextInt(sizes.size()));
+                    final var cell = page.stitch(size[0], size[1]);
+
+                    loads++;
+
+                    if (cell == null) failedLoads++;
+                    else cells.add(cell);
+                }
+
+                final var time = System.nanoTime() - startsAt;
+
+                // The first rounds warm up the JIT
+                if (round < ROUNDS / 2) continue;
+
+                System.out.printf(
+                        "%s, %sx%s page: given up at %.1f%% used, then at %.0f%% used %s of %s loads did not fit, %.2f us per step%n",
+                        packerName,
+                        page.width,
+                        page.height,
+                        fullArea * 100 / pageArea,
+                        CHURN_USAGE * 100,
+                        failedLoads,
+                        loads,
+                        time / 1e3 / CHURN_STEPS
+                );
+            }
+    }
+
+    /**
+     * @return width and height of every image of the pack, downscaled the way they are when loaded
+     */
+    private static List<int[]> packSizes() throws IOException {
+        final var sizes = new ArrayList<int[]>();
+
+        try (final Stream<Path> files = Files.walk(PACK)) {
+            for (final var file: files.filter(path -> path.toString().endsWith(".png")).sorted().toList())
+                try (final var input = new DataInputStream(Files.newInputStream(file))) {
+                    // Signature, IHDR chunk length and type, then the size
+                    input.skipNBytes(16);
+
+                    final var width = input.readInt();
+                    final var height = input.readInt();
+                    final var scale = Math.min(1d, (double) MAX_RESOLUTION / Math.max(width, height));
+
+                    sizes.add(new int[] {
+                            Math.max(1, (int) Math.round(width * scale)),
+                            Math.max(1, (int) Math.round(height * scale))
+                    });
+                }
+        }
+
+        return sizes;
+    }
+
+    /**
+     * Cell size, alignment and growth of an atlas page
+     */
+    private static class Page {
+        private final EmojiAtlasPacker packer;
+        private int width = INITIAL_SIZE, height = INITIAL_SIZE;
+        private long usedArea = 0;
+
+        private Page(String packerName) {
+            packer = EmojiAtlasPacker.create(packerName, width, height);
+        }
+
+        private Rect2i stitch(int imageWidth, int imageHeight) {
+            final var cellWidth = getCellSize(imageWidth);
+            final var cellHeight = getCellSize(imageHeight);
+
+            while (true) {
+                final var position = packer.allocate(cellWidth, cellHeight);
+
+                if (position != null) {
+                    usedArea += (long) cellWidth * cellHeight;
+
+                    return new Rect2i(position.x, position.y, cellWidth, cellHeight);
+                }
+
+                if (width == MAX_SIZE && height == MAX_SIZE) return null;
+
+                final int oldWidth = width, oldHeight = height;
+
+                if (width <= height) width = Math.min(width * 2, MAX_SIZE);
+                else height = Math.min(height * 2, MAX_SIZE);
+
+                packer.grow(oldWidth, oldHeight, width, height);
+            }
+        }
+
+        private void free(Rect2i cell) {
+            packer.free(cell.getX(), cell.getY(), cell.getWidth(), cell.getHeight());
+            usedArea -= (long) cell.getWidth() * cell.getHeight();
+        }
+
+        private static int getCellSize(int size) {
+            return (size + PADDING * 2 + ALIGNMENT - 1) & -ALIGNMENT;
+        }
+    }
+}
@@ -0,0 +1,130 @@
+package io.github.aratakileo.emogg.emoji;
+
+import net.minecraft.SharedConstants;
+import net.minecraft.network.chat.Component;
+import net.minecraft.network.chat.MutableComponent;
+// 1.20.1
+import net.minecraft.network.chat.contents.LiteralContents;
+// 1.20.4
+//import net.minecraft.network.chat.contents.PlainTextContents;
+import net.minecraft.server.Bootstrap;
+import net.minecraft.util.StringDecomposer;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class EmojiFontSetTest {
+    private static EmojiRegistry registry;
+
+    @BeforeAll
+    static void setUp(@TempDir File tempDir) {
+        SharedConstants.tryDetectVersion();
+        Bootstrap.bootStrap();
+
+        final var emojis = new ArrayList<Emoji>(EmojiFontSet.MAX_EMOJI_COUNT);
+
+        for (var id = 0; id < EmojiFontSet.MAX_EMOJI_COUNT; id++) emojis.add(TestEmojis.of(id, "e" + id));
+
+        registry = new EmojiRegistry(emojis);
+        EmojiManager.init(EmojiIdMap.load(new File(tempDir, "emogg_ids.bin"))).setRegistry(registry);
+    }
+
+    @Test
+    void everyIdRoundTripsThroughAPrivateUseCodePoint() {
+        var lastCodePoint = -1;
+
+        for (var id = 0; id < EmojiFontSet.MAX_EMOJI_COUNT; id++) {
+            final var codePoint = EmojiFontSet.idToCodePoint(id);
+
+            assertTrue(codePoint > lastCodePoint, "Code points grow with ids");
+            // Also excludes the noncharacters U+xFFFE and U+xFFFF
+            assertEquals(Character.PRIVATE_USE, Character.getType(codePoint), () -> Integer.toHexString(codePoint));
+            assertEquals(id, EmojiFontSet.codePointToId(codePoint));
+
+            lastCodePoint = codePoint;
+        }
+    }
+
+    @Test
+    void planesAreJoinedAcrossTheNoncharacterGap() {
+        assertEquals(0xFFFFD, EmojiFontSet.idToCodePoint(0xFFFD));
+        assertEquals(0x100000, EmojiFontSet.idToCodePoint(0xFFFE));
+        assertEquals(0x10FFFD, EmojiFontSet.idToCodePoint(EmojiFontSet.MAX_EMOJI_COUNT - 1));
+    }
+
+    @Test
+    void outOfRangeIdsHaveNoCodePoint() {
+        assertEquals(-1, EmojiFontSet.idToCodePoint(-1));
+        assertEquals(-1, EmojiFontSet.idToCodePoint(EmojiFontSet.MAX_EMOJI_COUNT));
+    }
+
+    @Test
+    void otherCodePointsHaveNoId() {
+        for (final var codePoint: new int[] {'a', 0xE000, 0xEFFFF, 0xFFFFE, 0xFFFFF, 0x10FFFE, 0x10FFFF, 0x110000})
+            assertEquals(-1, EmojiFontSet.codePointToId(codePoint), () -> Integer.toHexString(codePoint));
+    }
+
+    /**
+     * Emoji text goes from the parse plan into components, and is drawn code point by code point,
+     * {@link EmojiFontSet#getGlyph(int)} has to find the same emoji again from each of them
+     */
+    @Test
+    void everyEmojiRoundTripsThroughParsedText() {
+        for (var id = 0; id < EmojiFontSet.MAX_EMOJI_COUNT; id++) {
+            final var emoji = registry.getEmoji(id);
+
+            assertEquals(List.of(emoji), renderedEmojis(":" + emoji.getName() + ":"));
+        }
+
+        final var random = new Random(0);
+
+        for (var i = 0; i < 10_000; i++) {
+            final var text = new StringBuilder();
+            final var expected = new ArrayList<Emoji>();
+
+            for (var j = random.nextInt(8); j > 0; j--) {
+                final var emoji = registry.getEmoji(random.nextInt(EmojiFontSet.MAX_EMOJI_COUNT));
+
+                text.append(random.nextBoolean() ? " \u00e9 " : "").append(':').append(emoji.getName()).append(':');
+                expected.add(emoji);
+            }
+
+            assertEquals(expected, renderedEmojis(text.toString()), () -> "Emojis of <" + text + ">");
+        }
+    }
+
+    private static List<Emoji> renderedEmojis(String text) {
+        final var emojis = new ArrayList<Emoji>();
+
+        for (final var component: EmojiParsePlan.of(text).toComponents()) {
+            final var mutableComponent = (MutableComponent) component;
+// 1.20.1
+            final var componentText = ((LiteralContents) mutableComponent.getContents()).text();
+// 1.20.4
+//            final var componentText = ((PlainTextContents.LiteralContents) mutableComponent.getContents()).text();
+            final var isEmoji = EmojiFontSet.NAME.equals(component.getStyle().getFont());
+
+            // How Font feeds StringRenderOutput, a broken surrogate pair would come out as a replacement char here
+            StringDecomposer.iterateFormatted(componentText, component.getStyle(), (index, style, codePoint) -> {
+                if (!isEmoji) {
+                    assertEquals(-1, EmojiFontSet.codePointToId(codePoint));
+                    return true;
+                }
+
+                assertTrue(Character.isSupplementaryCodePoint(codePoint), () -> Integer.toHexString(codePoint));
+                emojis.add(EmojiManager.getInstance().getEmoji(EmojiFontSet.codePointToId(codePoint)));
+
+                return true;
+            });
+        }
+
+        return emojis;
+    }
+}
@@ -0,0 +1,75 @@
+package io.github.aratakileo.emogg.emoji;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class EmojiIdMapTest {
+    @TempDir
+    File tempDir;
+
+    @Test
+    void idsSurviveSavingAndLoading() {
+        final var file = new File(tempDir, "emogg_ids.bin");
+        final var idMap = EmojiIdMap.load(file);
+
+        // Empty names can come out of name normalization, they are names like any other
+        for (final var name: new String[] {"smile", "", "fire"}) idMap.getOrAssign(name);
+
+        idMap.save();
+
+        final var loadedIdMap = EmojiIdMap.load(file);
+
+        assertEquals(3, loadedIdMap.size());
+        assertEquals(0, loadedIdMap.getOrAssign("smile"));
+        assertEquals(1, loadedIdMap.getOrAssign(""));
+        assertEquals(2, loadedIdMap.getOrAssign("fire"));
+        assertFalse(new File(tempDir, "emogg_ids.bin.tmp").exists());
+    }
+
+    @Test
+    void freeIdsSurviveSavingAndLoading() {
+        final var file = new File(tempDir, "emogg_ids.bin");
+        final var idMap = EmojiIdMap.load(file);
+
+        idMap.getOrAssign("smile");
+        idMap.getOrAssign("");
+
+        // Only the last name keeps being seen, so the ids before it are freed
+        for (var reload = 0; reload <= 16; reload++) {
+            idMap.getOrAssign("fire");
+            idMap.finishReload();
+        }
+
+        assertEquals(1, idMap.size());
+
+        idMap.save();
+
+        final var loadedIdMap = EmojiIdMap.load(file);
+
+        assertEquals(1, loadedIdMap.size());
+        assertEquals(2, loadedIdMap.getOrAssign("fire"));
+        assertEquals(0, loadedIdMap.getOrAssign("new"));
+        assertEquals(1, loadedIdMap.getOrAssign(""));
+        assertEquals(3, loadedIdMap.getOrAssign("newer"));
+    }
+
+    @Test
+    void savingReplacesThePreviousFile() {
+        final var file = new File(tempDir, "emogg_ids.bin");
+        final var idMap = EmojiIdMap.load(file);
+
+        idMap.getOrAssign("smile");
+        idMap.save();
+        idMap.getOrAssign("fire");
+        idMap.save();
+
+        final var loadedIdMap = EmojiIdMap.load(file);
+
+        assertEquals(2, loadedIdMap.size());
+        assertEquals(1, loadedIdMap.getOrAssign("fire"));
+    }
+}
@@ -0,0 +1,122 @@
+package io.github.aratakileo.emogg.emoji;
+
+import io.github.aratakileo.emogg.util.EmojiUtil;
+import net.minecraft.resources.ResourceLocation;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class EmojiManagerTest {
+    @TempDir
+    File tempDir;
+
+    @Test
+    void collidingNamesGetNumberedInOrder() {
+        assertEquals(
+                List.of("smile", "smile0", "smile1", "smile_face", "smile_face0", "fire"),
+                resolveNames(locations(
+                        "a/smile", "b/smile", "c/smile", "a/smile_face", "b/smile-face", "a/fire"
+                ))
+        );
+    }
+
+    @Test
+    void numberedNamesAlreadyTakenAreSkipped() {
+        assertEquals(
+                List.of("smile", "smile0", "smile1", "smile00", "smile2"),
+                resolveNames(locations("a/smile", "a/smile0", "b/smile", "b/smile0", "c/smile"))
+        );
+    }
+
+    @Test
+    void manyFilesSharingANameGetConsecutiveNumbers() {
+        final var names = resolveNames(locations(
+                IntStream.range(0, 5_000).mapToObj(i -> "category" + i + "/frame").toArray(String[]::new)
+        ));
+
+        assertEquals("frame", names.get(0));
+
+        for (var i = 1; i < names.size(); i++) assertEquals("frame" + (i - 1), names.get(i));
+    }
+
+    @Test
+    void namesMatchThePreviousOneByOneResolution() {
+        final var random = new Random(0);
+
+        for (var pack = 0; pack < 50; pack++) {
+            final var paths = new ArrayList<String>();
+
+            // Short names out of few chars, so suffixed names often collide with real ones
+            for (var i = random.nextInt(300); i > 0; i--)
+                paths.add("c" + random.nextInt(3) + "/" + "ab1".charAt(random.nextInt(3)) + random.nextInt(3));
+
+            final var locations = locations(paths.toArray(String[]::new));
+
+            assertEquals(resolveNamesOneByOne(locations), resolveNames(locations), "Pack " + paths);
+        }
+    }
+
+    @Test
+    void resolutionIsDeterministicAndIdsAreKept() {
+        final var locations = locations("a/smile", "b/smile", "a/fire", "c/smile");
+        final var idMap = EmojiIdMap.load(new File(tempDir, "emogg_ids.bin"));
+        final var registry = EmojiManager.init(idMap).prepareRegistry(locations);
+        final var reloadedRegistry = EmojiManager.init(idMap).prepareRegistry(locations);
+
+        assertEquals(registry.size(), reloadedRegistry.size());
+
+        for (final var emoji: registry.getEmojis())
+            assertEquals(emoji.getName(), reloadedRegistry.getEmoji(emoji.getId()).getName());
+    }
+
+    /**
+     * @return the name every emoji got, in the order of the locations
+     */
+    private List<String> resolveNames(List<ResourceLocation> locations) {
+        // Ids of a new id map are given out in discovery order
+        final var registry = EmojiManager.init(EmojiIdMap.load(new File(tempDir, "emogg_ids_" + locations.hashCode() + ".bin")))
+                .prepareRegistry(locations);
+
+        return IntStream.range(0, locations.size()).mapToObj(id -> registry.getEmoji(id).getName()).toList();
+    }
+
+    /**
+     * How names were resolved before, probing {@code name0}, {@code name1}, ... from zero for every duplicate
+     */
+    static List<String> resolveNamesOneByOne(List<ResourceLocation> locations) {
+        final var takenNames = new HashSet<String>();
+        final var names = new ArrayList<String>();
+
+        for (final var location: locations) {
+            var name = EmojiUtil.normalizeEmojiObjectKey(EmojiUtil.getNameFromPath(location));
+
+            if (takenNames.contains(name)) {
+                var index = 0;
+
+                while (takenNames.contains(name + index)) index++;
+
+                name = name + index;
+            }
+
+            takenNames.add(name);
+            names.add(name);
+        }
+
+        return names;
+    }
+
+    static List<ResourceLocation> locations(String... paths) {
+        return List.of(paths)
+                .stream()
+                .map(path -> new ResourceLocation("emogg", EmojiUtil.EMOJI_FOLDER_NAME + "/" + path + ".png"))
+                .toList();
+    }
+}
@@ -0,0 +1,39 @@
+package io.github.aratakileo.emogg.emoji;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class EmojiNameIndexTest {
+    private final static List<Emoji> EMOJIS = TestEmojis.of(
+            "smile", "smiley", "smirk", "sob", "a", "ab", "abc", "b", "thumbsup", "thumbsdown", "_", "x_1"
+    );
+
+    @Test
+    void findsEveryName() {
+        final var index = new EmojiNameIndex(EMOJIS);
+
+        assertEquals(EMOJIS.size(), index.size());
+
+        for (final var emoji: EMOJIS) assertSame(emoji, index.get(emoji.getName()));
+    }
+
+    @Test
+    void findsNamesInsideText() {
+        final var index = new EmojiNameIndex(EMOJIS);
+        final var text = "hi :smiley: :smi: :sob:";
+
+        assertSame(EMOJIS.get(1), index.get(text, 4, 10));
+        assertSame(EMOJIS.get(3), index.get(text, 19, 22));
+        assertNull(index.get(text, 13, 16));
+        assertNull(index.get(text, 4, 4));
+    }
+
+    @Test
+    void emptyIndexFindsNothing() {
+        assertEquals(0, EmojiNameIndex.EMPTY.size());
+        assertNull(EmojiNameIndex.EMPTY.get("smile"));
+    }
+}
@@ -0,0 +1,103 @@
+package io.github.aratakileo.emogg.emoji;
+
+import net.minecraft.SharedConstants;
+import net.minecraft.network.chat.Component;
+import net.minecraft.network.chat.MutableComponent;
+import net.minecraft.server.Bootstrap;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.function.Consumer;
+import java.util.stream.IntStream;
+
+/**
+ * Cost of building tooltip components, most of which are never shown:
+ * as they are built now, and with the parse the constructor used to run on each of them
+ */
+@Tag("benchmark")
+class EmojiParserBenchmark {
+    private final static int TOOLTIPS = 20_000, ROUNDS = 10;
+
+    @BeforeAll
+    static void setUp(@TempDir File tempDir) {
+        SharedConstants.tryDetectVersion();
+        Bootstrap.bootStrap();
+
+        final var names = IntStream.range(0, 2_000).mapToObj(i -> "emoji_" + i).toArray(String[]::new);
+
+        EmojiManager.init(EmojiIdMap.load(new File(tempDir, "emogg_ids.bin")))
+                .setRegistry(new EmojiRegistry(TestEmojis.of(names)));
+    }
+
+    @Test
+    void buildingTooltips() {
+        final var tooltips = tooltips(new Random(0));
+        final var lineCount = tooltips.stream().mapToInt(List::size).sum();
+
+        for (var round = 0; round < ROUNDS; round++) {
+            final var lazyTime = time(tooltips, component -> { });
+            final var eagerTime = time(tooltips, EmojiParser::parse);
+
+            // The first rounds warm up the JIT and the parse plan cache
+            if (round < ROUNDS / 2) continue;
+
+            System.out.printf(
+                    "%s tooltips, %s lines: %.0f ns per line lazily, %.0f ns per line parsing on construction%n",
+                    TOOLTIPS,
+                    lineCount,
+                    (double) lazyTime / lineCount,
+                    (double) eagerTime / lineCount
+            );
+        }
+    }
+
+    private static long time(List<List<String>> tooltips, Consumer<MutableComponent> onConstruction) {
+        final var startsAt = System.nanoTime();
+        var siblingCount = 0L;
+
+        for (final var tooltip: tooltips)
+            for (final var line: tooltip) {
+                final var component = Component.literal(line);
+                onConstruction.accept(component);
+                siblingCount += component.getSiblings().size();
+            }
+
+        final var time = System.nanoTime() - startsAt;
+
+        // Keeps the work from being optimized away
+        if (siblingCount < 0) throw new IllegalStateException();
+
+        return time;
+    }
+
+    /**
+     * Item tooltips: a name, stats with colons and varying numbers, and an emoji once in a while
+     */
+    private static List<List<String>> tooltips(Random random) {
+        final var tooltips = new ArrayList<List<String>>(TOOLTIPS);
+
+        for (var i = 0; i < TOOLTIPS; i++) {
+            final var tooltip = new ArrayList<String>();
+
+            tooltip.add(random.nextInt(50) == 0 ? ":emoji_" + random.nextInt(2_000) + ": Relic" : "Item " + random.nextInt(1_000));
+            tooltip.add("When in Main Hand:");
+            tooltip.add(" " + random.nextInt(20) + " Attack Damage");
+            tooltip.add(" " + random.nextInt(4) + "." + random.nextInt(10) + " Attack Speed");
+
+            for (var j = random.nextInt(4); j > 0; j--) tooltip.add("Enchantment " + random.nextInt(40) + " " + (1 + random.nextInt(5)));
+
+            tooltip.add("Durability: " + random.nextInt(2_000) + " / 2031");
+            tooltip.add("minecraft:item_" + random.nextInt(1_000));
+
+            tooltips.add(tooltip);
+        }
+
+        return tooltips;
+    }
+}
@@ -0,0 +1,84 @@
+package io.github.aratakileo.emogg.emoji;
+
+import io.github.aratakileo.emogg.mixin.ParsedComponent;
+import net.minecraft.SharedConstants;
+import net.minecraft.network.chat.Component;
+import net.minecraft.network.chat.MutableComponent;
+// 1.20.1
+import net.minecraft.network.chat.contents.LiteralContents;
+// 1.20.4
+//import net.minecraft.network.chat.contents.PlainTextContents;
+import net.minecraft.server.Bootstrap;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Runs with the mixins applied, see fabric-loader-junit in build.gradle
+ */
+class EmojiParserTest {
+    @BeforeAll
+    static void setUp(@TempDir File tempDir) {
+        SharedConstants.tryDetectVersion();
+        Bootstrap.bootStrap();
+
+        EmojiManager.init(EmojiIdMap.load(new File(tempDir, "emogg_ids.bin")))
+                .setRegistry(new EmojiRegistry(TestEmojis.of("smile", "fire")));
+    }
+
+    @Test
+    void constructingComponentsDoesNotParseThem() {
+        for (final var text: List.of("plain", ":smile:", "a :smile: b :fire:", "\\:smile:")) {
+            final var component = Component.literal(text);
+            final var argument = Component.literal(text);
+            final var translatable = Component.translatable("emogg.test", argument);
+
+            for (final var constructed: List.of(component, argument, translatable))
+                assertFalse(((ParsedComponent) constructed).emogg$isParseChecked(), () -> "<" + text + "> is checked");
+
+            assertEquals(text, literalText(component));
+            assertTrue(component.getSiblings().isEmpty());
+            assertNull(EmojiParser.getOriginal(component));
+        }
+    }
+
+    @Test
+    void parsingSplitsEmojisOutOnce() {
+        final var component = Component.literal("a :smile: b");
+
+        EmojiParser.parse(component);
+
+        assertTrue(((ParsedComponent) component).emogg$isParseChecked());
+        assertEquals("a :smile: b", literalText(EmojiParser.getOriginal(component)));
+        assertEquals(3, component.getSiblings().size());
+
+        final var siblings = List.copyOf(component.getSiblings());
+
+        EmojiParser.parse(component);
+
+        assertEquals(siblings, component.getSiblings());
+    }
+
+    @Test
+    void plainTextIsOnlyMarkedChecked() {
+        final var component = Component.literal("no emojis: here");
+
+        EmojiParser.parse(component);
+
+        assertTrue(((ParsedComponent) component).emogg$isParseChecked());
+        assertEquals("no emojis: here", literalText(component));
+        assertNull(EmojiParser.getOriginal(component));
+    }
+
+    private static String literalText(MutableComponent component) {
+// 1.20.1
+        return ((LiteralContents) component.getContents()).text();
+// 1.20.4
+//        return ((PlainTextContents.LiteralContents) component.getContents()).text();
+    }
+}
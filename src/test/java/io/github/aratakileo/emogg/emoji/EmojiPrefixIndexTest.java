@@ -0,0 +1,47 @@
+package io.github.aratakileo.emogg.emoji;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class EmojiPrefixIndexTest {
+    private final static List<Emoji> EMOJIS = TestEmojis.of(
+            "smile", "smiley", "smirk", "sob", "a", "ab", "abc", "b", "thumbsup", "thumbsdown", "_", "x_1"
+    );
+
+    @Test
+    void prefixRangesHoldExactlyTheMatchingNames() {
+        final var index = new EmojiPrefixIndex(EMOJIS);
+
+        for (final var prefix: List.of("", "s", "sm", "smi", "smil", "smiley", "smileys", "a", "ab", "abc", "abcd",
+                "t", "thumbs", "z", "_", "0", "x_")) {
+            final var fromIndex = index.fromIndex(prefix);
+            final var toIndex = index.toIndex(prefix);
+
+            assertEquals(
+                    EMOJIS.stream().filter(emoji -> emoji.getName().startsWith(prefix)).count(),
+                    (long) (toIndex - fromIndex),
+                    "Range size for <" + prefix + ">"
+            );
+
+            for (var i = fromIndex; i < toIndex; i++)
+                assertTrue(index.get(i).getName().startsWith(prefix), "<" + index.get(i).getName() + "> for <" + prefix + ">");
+
+            for (var i = 1; i < index.size(); i++)
+                assertTrue(index.get(i - 1).getName().compareTo(index.get(i).getName()) < 0);
+        }
+    }
+
+    @Test
+    void indexOfFindsOnlyWholeNames() {
+        final var index = new EmojiPrefixIndex(EMOJIS);
+
+        for (final var emoji: EMOJIS) assertSame(emoji, index.get(index.indexOf(emoji.getName())));
+
+        assertEquals(-1, index.indexOf("smil"));
+        assertEquals(-1, index.indexOf("zzz"));
+        assertEquals(-1, index.indexOf(""));
+    }
+}
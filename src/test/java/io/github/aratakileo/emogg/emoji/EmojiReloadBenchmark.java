@@ -0,0 +1,81 @@
+package io.github.aratakileo.emogg.emoji;
+
+import net.minecraft.resources.ResourceLocation;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Reload time of a synthetic 20k emoji pack, from the sorted resource locations to the registry,
+ * the first time and with the ids already known
+ */
+@Tag("benchmark")
+class EmojiReloadBenchmark {
+    private final static int EMOJIS = 20_000, ROUNDS = 10;
+
+    @TempDir
+    File tempDir;
+
+    @Test
+    void reloadingA20kEmojiPack() {
+        final var locations = pack(new Random(0));
+
+        for (var round = 0; round < ROUNDS; round++) {
+            final var idMap = EmojiIdMap.load(new File(tempDir, "emogg_ids_" + round + ".bin"));
+            final var manager = EmojiManager.init(idMap);
+
+            final var startsAt = System.nanoTime();
+            final var registry = manager.prepareRegistry(locations);
+            final var firstTime = System.nanoTime() - startsAt;
+
+            final var startsReloadingAt = System.nanoTime();
+            manager.prepareRegistry(locations);
+            final var reloadTime = System.nanoTime() - startsReloadingAt;
+
+            final var startsOneByOneAt = System.nanoTime();
+            EmojiManagerTest.resolveNamesOneByOne(locations);
+            final var oneByOneTime = System.nanoTime() - startsOneByOneAt;
+
+            // The first rounds warm up the JIT
+            if (round < ROUNDS / 2) continue;
+
+            System.out.printf(
+                    "%s emojis: %.1f ms with new ids, %.1f ms with known ids (previous one by one naming alone: %.1f ms)%n",
+                    registry.size(),
+                    firstTime / 1e6,
+                    reloadTime / 1e6,
+                    oneByOneTime / 1e6
+            );
+        }
+    }
+
+    /**
+     * Sorted like a reload sorts them: 40 categories, names mostly unique,
+     * some shared across categories, and a few animation frame names shared by hundreds of files
+     */
+    private static List<ResourceLocation> pack(Random random) {
+        final var paths = new ArrayList<String>(EMOJIS);
+
+        for (var i = 0; i < EMOJIS; i++) {
+            final var category = "category_" + random.nextInt(40);
+            final var kind = random.nextInt(100);
+            final String name;
+
+            if (kind < 80) name = "emoji_" + i;
+            else if (kind < 95) name = "shared_" + random.nextInt(500);
+            else name = "frame_" + random.nextInt(3);
+
+            paths.add(category + "/" + name);
+        }
+
+        final var locations = new ArrayList<>(EmojiManagerTest.locations(paths.toArray(String[]::new)));
+        locations.sort(null);
+
+        return locations;
+    }
+}
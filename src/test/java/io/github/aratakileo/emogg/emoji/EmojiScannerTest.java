@@ -0,0 +1,75 @@
+package io.github.aratakileo.emogg.emoji;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * {@link EmojiScanner} has to find exactly the sections {@link EmojiParser#PATTERN} finds
+ */
+class EmojiScannerTest {
+    private final static String ALPHABET = "::：\\\\aZ09_ -!";
+
+    private record Section(int start, int end, String name, boolean escaped) { }
+
+    @Test
+    void matchesPatternOnSpecialCases() {
+        for (final var text: List.of(
+                "",
+                ":",
+                "::",
+                ":a:",
+                "：a：",
+                ":a：",
+                "：a:",
+                "::a::b:",
+                ":a::b:",
+                ":a:b:c:",
+                "\\:a:",
+                "\\\\:a:",
+                "\\：a：",
+                "a\\:b:c:",
+                ":\\a:",
+                ":a\\:b:",
+                "hi :smile: and \\:smile:!",
+                ":not closed",
+                ":a b:",
+                ":a-b:"
+        ))
+            assertMatchesPattern(text);
+    }
+
+    @Test
+    void matchesPatternOnRandomText() {
+        final var random = new Random(0);
+
+        for (var i = 0; i < 100_000; i++) {
+            final var text = new StringBuilder();
+            final var length = random.nextInt(16);
+
+            for (var j = 0; j < length; j++) text.append(ALPHABET.charAt(random.nextInt(ALPHABET.length())));
+
+            assertMatchesPattern(text.toString());
+        }
+    }
+
+    private static void assertMatchesPattern(String text) {
+        final var expected = new ArrayList<Section>();
+        final var matcher = EmojiParser.PATTERN.matcher(text);
+
+        while (matcher.find())
+            expected.add(new Section(matcher.start(), matcher.end(), matcher.group(2), !matcher.group(1).isEmpty()));
+
+        final var actual = new ArrayList<Section>();
+        final var scanner = new EmojiScanner(text);
+
+        while (scanner.find())
+            actual.add(new Section(scanner.start(), scanner.end(), scanner.getName(), scanner.isEscaped()));
+
+        assertEquals(expected, actual, () -> "Sections of <" + text + ">");
+    }
+}
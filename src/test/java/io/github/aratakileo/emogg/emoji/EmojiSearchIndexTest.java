@@ -0,0 +1,88 @@
+package io.github.aratakileo.emogg.emoji;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class EmojiSearchIndexTest {
+    private final static List<Emoji> EMOJIS = TestEmojis.of(
+            "thumbsup", "thumbsdown", "rotating_light", "light_rail", "traffic_light", "smile", "smiley",
+            "a", "aa", "aaa", "aaaa", "x_1", "1st_place_medal", "book", "notebook", "bookmark"
+    );
+
+    @Test
+    void findsExactlyTheNamesContainingTheQuery() {
+        final var index = new EmojiSearchIndex(new EmojiPrefixIndex(EMOJIS));
+
+        for (final var query: List.of("", "t", "th", "thu", "thumb", "light", "_l", "ligh", "a", "aa", "aaa", "aaaa",
+                "aaaaa", "_1", "1st", "book", "ook", "zzz", "smile", "mile"))
+            assertArrayEquals(bruteForce(index, query), index.search(query), () -> "Search for <" + query + ">");
+    }
+
+    @Test
+    void narrowingWhileTypingMatchesFreshSearches() {
+        final var index = new EmojiSearchIndex(new EmojiPrefixIndex(EMOJIS));
+        final var search = new EmojiSearchIndex.Search();
+
+        for (final var word: List.of("rotating_light", "traffic_light", "notebook", "aaaa", "thumbsdown"))
+            for (var length = 0; length <= word.length(); length++) {
+                final var query = word.substring(0, length);
+                assertArrayEquals(bruteForce(index, query), search.update(index, query), () -> "Typing <" + query + ">");
+            }
+
+        // Editing back and forth must not keep results of a query which does not contain the new one
+        for (final var query: List.of("light", "lightx", "light", "book", "bookmark", "ookmark", "ook"))
+            assertArrayEquals(bruteForce(index, query), search.update(index, query), () -> "Typing <" + query + ">");
+    }
+
+    @Test
+    void narrowingRandomNamesMatchesBruteForce() {
+        final var random = new Random(0);
+        final var names = new ArrayList<String>();
+
+        for (var i = 0; i < 2_000; i++) {
+            final var name = new StringBuilder();
+            final var length = 1 + random.nextInt(12);
+
+            for (var j = 0; j < length; j++) name.append("abc_1".charAt(random.nextInt(5)));
+
+            if (!names.contains(name.toString())) names.add(name.toString());
+        }
+
+        final var index = new EmojiSearchIndex(new EmojiPrefixIndex(TestEmojis.of(names.toArray(String[]::new))));
+        final var search = new EmojiSearchIndex.Search();
+
+        for (var i = 0; i < 200; i++) {
+            final var word = names.get(random.nextInt(names.size()));
+
+            for (var length = 0; length <= word.length(); length++) {
+                final var query = word.substring(0, length);
+                assertArrayEquals(bruteForce(index, query), search.update(index, query), () -> "Typing <" + query + ">");
+            }
+        }
+    }
+
+    @Test
+    void fuzzySearchToleratesTypos() {
+        final var index = new EmojiSearchIndex(new EmojiPrefixIndex(EMOJIS));
+        final var prefixIndex = index.getPrefixIndex();
+        final var positions = index.searchFuzzy("notebok");
+
+        assertTrue(positions.length > 0);
+        assertEquals("notebook", prefixIndex.get(positions[0]).getName());
+        assertEquals(0, index.searchFuzzy("zz").length);
+    }
+
+    private static int[] bruteForce(EmojiSearchIndex index, String query) {
+        final var prefixIndex = index.getPrefixIndex();
+
+        return IntStream.range(0, prefixIndex.size())
+                .filter(position -> prefixIndex.get(position).getName().contains(query))
+                .toArray();
+    }
+}
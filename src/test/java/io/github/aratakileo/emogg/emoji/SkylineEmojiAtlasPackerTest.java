@@ -0,0 +1,142 @@
+package io.github.aratakileo.emogg.emoji;
+
+import io.github.aratakileo.emogg.util.Rect2i;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SkylineEmojiAtlasPackerTest {
+    @Test
+    void fillsAnEmptyPageWithoutGaps() {
+        final var packer = new SkylineEmojiAtlasPacker(64, 64);
+
+        for (var i = 0; i < 16; i++) assertNotNull(packer.allocate(16, 16));
+
+        assertNull(packer.allocate(1, 1));
+        assertEquals(0L, freeArea(packer));
+    }
+
+    @Test
+    void reusesFreedSpace() {
+        final var packer = new SkylineEmojiAtlasPacker(32, 32);
+        final var positions = new ArrayList<Rect2i>();
+
+        for (var i = 0; i < 4; i++) {
+            final var position = packer.allocate(16, 16);
+            positions.add(new Rect2i(position.x, position.y, 16, 16));
+        }
+
+        final var freed = positions.get(1);
+        packer.free(freed.getX(), freed.getY(), 16, 16);
+
+        final var position = packer.allocate(16, 16);
+
+        assertEquals(freed.getX(), position.x);
+        assertEquals(freed.getY(), position.y);
+    }
+
+    @Test
+    void mergesFreedNeighbours() {
+        final var packer = new SkylineEmojiAtlasPacker(32, 32);
+
+        for (var i = 0; i < 4; i++) packer.allocate(16, 16);
+
+        packer.free(0, 0, 16, 16);
+        packer.free(16, 0, 16, 16);
+
+        // Only fits if both halves were merged
+        assertNotNull(packer.allocate(32, 16));
+    }
+
+    @Test
+    void keepsAllocationsDisjointUnderRandomUse() {
+        final var random = new Random(0);
+        final var packer = new SkylineEmojiAtlasPacker(256, 256);
+        final var allocated = new ArrayList<Rect2i>();
+
+        var width = 256;
+        var height = 256;
+
+        for (var step = 0; step < 5_000; step++) {
+            if (!allocated.isEmpty() && random.nextInt(3) == 0) {
+                final var rect = allocated.remove(random.nextInt(allocated.size()));
+                packer.free(rect.getX(), rect.getY(), rect.getWidth(), rect.getHeight());
+            } else {
+                final var rectWidth = 4 + random.nextInt(8) * 4;
+                final var rectHeight = 4 + random.nextInt(8) * 4;
+                final var position = packer.allocate(rectWidth, rectHeight);
+
+                if (position == null) {
+                    if (width < 1024) {
+                        packer.grow(width, height, width * 2, height * 2);
+                        width *= 2;
+                        height *= 2;
+                    }
+
+                    continue;
+                }
+
+                final var rect = new Rect2i(position.x, position.y, rectWidth, rectHeight);
+
+                assertTrue(
+                        rect.getX() >= 0 && rect.getY() >= 0 && rect.getRight() <= width && rect.getBottom() <= height,
+                        () -> rect + " is out of the page"
+                );
+
+                for (final var other: allocated) assertFalse(overlap(rect, other), () -> rect + " overlaps " + other);
+
+                allocated.add(rect);
+            }
+
+            if (step % 500 == 0) assertFreeSpaceIsConsistent(packer, allocated, width, height);
+        }
+
+        for (final var rect: allocated) packer.free(rect.getX(), rect.getY(), rect.getWidth(), rect.getHeight());
+
+        allocated.clear();
+        assertFreeSpaceIsConsistent(packer, allocated, width, height);
+    }
+
+    /**
+     * Free areas must neither overlap each other nor allocations, and together with them cover the page
+     */
+    private static void assertFreeSpaceIsConsistent(
+            SkylineEmojiAtlasPacker packer,
+            List<Rect2i> allocated,
+            int width,
+            int height
+    ) {
+        final var freeSpace = new ArrayList<>(packer.getFreeSpace());
+
+        for (var i = 0; i < freeSpace.size(); i++) {
+            final var rect = freeSpace.get(i);
+
+            for (var j = i + 1; j < freeSpace.size(); j++) {
+                final var other = freeSpace.get(j);
+                assertFalse(overlap(rect, other), () -> "Free " + rect + " overlaps free " + other);
+            }
+
+            for (final var other: allocated) assertFalse(overlap(rect, other), () -> "Free " + rect + " overlaps " + other);
+        }
+
+        final var allocatedArea = allocated.stream().mapToLong(SkylineEmojiAtlasPackerTest::area).sum();
+
+        assertEquals((long) width * height, freeArea(packer) + allocatedArea);
+    }
+
+    private static long freeArea(SkylineEmojiAtlasPacker packer) {
+        return packer.getFreeSpace().stream().mapToLong(SkylineEmojiAtlasPackerTest::area).sum();
+    }
+
+    private static long area(Rect2i rect) {
+        return (long) rect.getWidth() * rect.getHeight();
+    }
+
+    private static boolean overlap(Rect2i a, Rect2i b) {
+        return a.getX() < b.getRight() && b.getX() < a.getRight() && a.getY() < b.getBottom() && b.getY() < a.getBottom();
+    }
+}
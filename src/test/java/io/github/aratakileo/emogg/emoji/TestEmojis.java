@@ -0,0 +1,25 @@
+package io.github.aratakileo.emogg.emoji;
+
+import net.minecraft.resources.ResourceLocation;
+
+import java.util.ArrayList;
+import java.util.List;
+
+final class TestEmojis {
+    private TestEmojis() {}
+
+    static Emoji of(int id, String name) {
+        return Emoji.fromResource(id, name, new ResourceLocation("emogg", "emoji/test/" + name + ".png"));
+    }
+
+    /**
+     * @return emojis with the names, ids in the order of the names
+     */
+    static List<Emoji> of(String... names) {
+        final var emojis = new ArrayList<Emoji>(names.length);
+
+        for (var id = 0; id < names.length; id++) emojis.add(of(id, names[id]));
+
+        return emojis;
+    }
+}